@@ -0,0 +1,59 @@
+package com.akash.embedqa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors used by the request execution pipeline.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Configuration
+public class ExecutionConfig {
+
+    public static final String API_EXECUTION_EXECUTOR = "apiExecutionExecutor";
+
+    // Worker threads; idle ones time out so the pool shrinks back when quiet
+    private static final int POOL_SIZE = 32;
+
+    // Pending tasks once every worker is busy
+    private static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * Runs blocking execution work: outbound calls fanned out by the server,
+     * history persistence, and follow-up work for exchanges that completed
+     * on an I/O reactor thread. Reactor threads must never block on JDBC.
+     *
+     * With {@code spring.threads.virtual.enabled=true} every task gets its own
+     * virtual thread (Tomcat request handling switches at the same time);
+     * otherwise a bounded platform thread pool is used.
+     */
+    @Bean(name = API_EXECUTION_EXECUTOR)
+    public Executor apiExecutionExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("embedqa-exec-vt-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // core == max: a ThreadPoolExecutor only grows past core once the queue
+        // is full, which would cap collection runs at the core size
+        executor.setCorePoolSize(POOL_SIZE);
+        executor.setMaxPoolSize(POOL_SIZE);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(QUEUE_CAPACITY);
+        executor.setThreadNamePrefix("embedqa-exec-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
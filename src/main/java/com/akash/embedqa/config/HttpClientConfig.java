@@ -1,25 +1,40 @@
 package com.akash.embedqa.config;
 
+import com.akash.embedqa.config.HttpClientRegistry.TransportProfile;
+import com.akash.embedqa.config.PhaseTimingSupport.LeaseWaitListener;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
 import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.net.ssl.SSLContext;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,10 +44,10 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class HttpClientConfig {
 
-    // Maximum total HTTP connections across all target hosts
+    // Default for embedqa.http.pool.max-total: connections across all target hosts
     private static final int MAX_TOTAL_CONNECTIONS = 100;
 
-    // Maximum concurrent connections allowed per single host (route)
+    // Default for embedqa.http.pool.max-per-route: concurrent connections to a single host (route)
     private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
 
     // Time to establish a TCP connection with the target server
@@ -45,18 +60,42 @@ public class HttpClientConfig {
     private static final int CONNECTION_REQUEST_TIMEOUT_MS = 30000; // 30 seconds
 
     /**
-     * Creates a singleton Apache CloseableHttpClient bean
-     * with connection pooling, timeouts, and SSL support.
+     * Creates the registry of execution clients, one pooled client per transport
+     * profile, built on first use. Non-blocking clients are only available when
+     * {@code embedqa.http.engine=async}. Every pool is built with the configured
+     * limits and reports its state and lease waits to the meter registry.
      */
-    @Bean
-    public CloseableHttpClient httpClient()
-            throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
-
-        // Create SSL context that trusts all certificates (for development)
-        // In production, configure proper certificate validation
-        SSLContext sslContext = SSLContextBuilder.create()
-                .loadTrustMaterial(null, (chain, authType) -> true)
-                .build();
+    @Bean(destroyMethod = "close")
+    public HttpClientRegistry httpClientRegistry(
+            @Value("${embedqa.http.engine:classic}") String engine,
+            @Value("${embedqa.http.io-threads:0}") int ioThreads,
+            @Value("${embedqa.http.pool.max-total:" + MAX_TOTAL_CONNECTIONS + "}") int maxTotal,
+            @Value("${embedqa.http.pool.max-per-route:" + MAX_CONNECTIONS_PER_ROUTE + "}") int maxPerRoute,
+            MeterRegistry meterRegistry) {
+        HttpPoolMetrics metrics = new HttpPoolMetrics(meterRegistry);
+        return new HttpClientRegistry(
+                profile -> classicPool(profile, maxTotal, maxPerRoute, metrics),
+                "async".equals(engine)
+                        ? profile -> asyncPool(profile, ioThreads, maxTotal, maxPerRoute, metrics)
+                        : null,
+                defaultRequestConfig(),
+                maxTotal,
+                maxPerRoute);
+    }
+
+    /**
+     * Creates an Apache CloseableHttpClient with connection pooling, timeouts,
+     * and SSL support for one transport profile, without metrics.
+     *
+     * @param maxTotal    connections allowed across all routes
+     * @param maxPerRoute connections allowed per route (host)
+     */
+    public CloseableHttpClient httpClient(TransportProfile profile, int maxTotal, int maxPerRoute) {
+        return classicPool(profile, maxTotal, maxPerRoute, null).client();
+    }
+
+    private HttpClientRegistry.Pool<CloseableHttpClient> classicPool(TransportProfile profile, int maxTotal,
+                                                                     int maxPerRoute, HttpPoolMetrics metrics) {
 
         /*
          * Connection manager with pooling support
@@ -64,14 +103,11 @@ public class HttpClientConfig {
          * Manages and reuses HTTP connections efficiently.
          */
         PoolingHttpClientConnectionManager connectionManager =
-                PoolingHttpClientConnectionManagerBuilder.create()
+                // Reports DNS, connect and TLS phases to executions that are timed
+                PhaseTimingSupport.connectionManagerBuilder()
 
-                        // Configure HTTPS using the custom SSL context
-                        .setSSLSocketFactory(
-                                SSLConnectionSocketFactoryBuilder.create()
-                                        .setSslContext(sslContext)
-                                        .build()
-                        )
+                        // Configure HTTPS with the profile's certificate checks
+                        .setSSLSocketFactory(sslSocketFactory(profile))
 
                         // Default socket configuration (read timeout)
                         .setDefaultSocketConfig(
@@ -80,7 +116,10 @@ public class HttpClientConfig {
                                         .build()
                         )
 
-                        // Enforce strict connection pool limits
+                        // Enforce strict connection pool limits.
+                        // StrictConnPool guards its state with a ReentrantLock (no synchronized
+                        // blocks), so a virtual thread waiting for a lease parks instead of pinning
+                        // its carrier; VirtualThreadPinningMonitor reports it if that ever regresses.
                         .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
 
                         // Reuse the most recently used connection first (better performance)
@@ -101,41 +140,36 @@ public class HttpClientConfig {
                         )
 
                         // Total connections allowed across all routes
-                        .setMaxConnTotal(MAX_TOTAL_CONNECTIONS)
+                        .setMaxConnTotal(maxTotal)
 
                         // Maximum connections per route (host)
-                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                        .setMaxConnPerRoute(maxPerRoute)
 
                         .build();
 
-        /*
-         * Default request configuration
-         * -----------------------------
-         * Applied to every HTTP request automatically.
-         */
-        RequestConfig requestConfig = RequestConfig.custom()
-
-                // Maximum time to wait for a free connection from the pool
-                .setConnectionRequestTimeout(
-                        Timeout.ofMilliseconds(CONNECTION_REQUEST_TIMEOUT_MS)
-                )
-
-                // Maximum time waiting for a response
-                .setResponseTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT_MS))
-
-                .build();
+        String poolName = poolName("classic", profile);
+        LeaseWaitListener leaseWaits = metrics != null
+                ? metrics.bind(poolName, connectionManager)
+                : LeaseWaitListener.NONE;
 
         /*
          * Build and return the HTTP client
          * -------------------------------
          */
-        return HttpClients.custom()
+        CloseableHttpClient client = HttpClients.custom()
 
                 // Use the pooled connection manager
                 .setConnectionManager(connectionManager)
 
+                // The connect element leases the connection; time to first byte is
+                // measured around the transport itself
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(),
+                        PhaseTimingSupport.LEASE_INTERCEPTOR_NAME, PhaseTimingSupport.leaseInterceptor(leaseWaits))
+                .addExecInterceptorBefore(ChainElement.MAIN_TRANSPORT.name(),
+                        PhaseTimingSupport.INTERCEPTOR_NAME, PhaseTimingSupport.execInterceptor(leaseWaits))
+
                 // Apply default request-level configuration
-                .setDefaultRequestConfig(requestConfig)
+                .setDefaultRequestConfig(defaultRequestConfig())
 
                 // Remove expired connections automatically
                 .evictExpiredConnections()
@@ -144,6 +178,149 @@ public class HttpClientConfig {
                 .evictIdleConnections(TimeValue.of(30, TimeUnit.SECONDS))
 
                 .build();
+
+        return new HttpClientRegistry.Pool<>(poolName, client, connectionManager);
+    }
+
+    /**
+     * Creates the non-blocking execution engine for one transport profile, used
+     * when {@code embedqa.http.engine=async}.
+     *
+     * A handful of I/O reactor threads multiplex every in-flight execution,
+     * so slow upstreams no longer hold a servlet thread for the whole
+     * socket timeout. Pool limits and timeouts mirror the classic client.
+     *
+     * HTTPS targets that offer HTTP/2 through ALPN get it, and concurrent
+     * requests to them share one connection as separate streams instead of
+     * each leasing a pooled connection. Everything else falls back to HTTP/1.1.
+     */
+    private HttpClientRegistry.Pool<CloseableHttpAsyncClient> asyncPool(TransportProfile profile, int ioThreads,
+                                                                        int maxTotal, int maxPerRoute,
+                                                                        HttpPoolMetrics metrics) {
+
+        PoolingAsyncClientConnectionManager connectionManager =
+                PhaseTimingSupport.asyncConnectionManagerBuilder()
+
+                        // Configure HTTPS using the same checks as the classic client
+                        .setTlsStrategy(tlsStrategy(profile))
+
+                        // Offer h2 and http/1.1 through ALPN (plain HTTP always uses HTTP/1.1)
+                        .setDefaultTlsConfig(
+                                TlsConfig.custom()
+                                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                                        .build()
+                        )
+
+                        // Lease an established HTTP/2 connection to every concurrent request
+                        .setMessageMultiplexing(true)
+
+                        .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                        .setConnPoolPolicy(PoolReusePolicy.LIFO)
+
+                        .setDefaultConnectionConfig(
+                                ConnectionConfig.custom()
+                                        .setConnectTimeout(Timeout.ofMilliseconds(CONNECTION_TIMEOUT_MS))
+                                        .setSocketTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT_MS))
+                                        .setTimeToLive(TimeValue.ofMinutes(10))
+                                        .build()
+                        )
+
+                        .setMaxConnTotal(maxTotal)
+                        .setMaxConnPerRoute(maxPerRoute)
+
+                        .build();
+
+        /*
+         * I/O reactor configuration
+         * -------------------------
+         * 0 means one reactor thread per available CPU core.
+         */
+        IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT_MS));
+        if (ioThreads > 0) {
+            reactorConfig.setIoThreadCount(ioThreads);
+        }
+
+        String poolName = poolName("async", profile);
+        LeaseWaitListener leaseWaits = metrics.bind(poolName, connectionManager);
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(),
+                        PhaseTimingSupport.LEASE_INTERCEPTOR_NAME, PhaseTimingSupport.asyncLeaseInterceptor(leaseWaits))
+                .addExecInterceptorBefore(ChainElement.MAIN_TRANSPORT.name(),
+                        PhaseTimingSupport.INTERCEPTOR_NAME, PhaseTimingSupport.asyncExecInterceptor(leaseWaits))
+                .setIOReactorConfig(reactorConfig.build())
+                // Responses are all we want from a server; refuse pushed streams
+                .setH2Config(H2Config.custom().setPushEnabled(false).build())
+                .setDefaultRequestConfig(defaultRequestConfig())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(30, TimeUnit.SECONDS))
+                .build();
+
+        // The reactor must be started before the first request is submitted
+        client.start();
+        return new HttpClientRegistry.Pool<>(poolName, client, connectionManager);
+    }
+
+    // e.g. classic-verified, async-trust-all
+    private static String poolName(String engine, TransportProfile profile) {
+        return engine + "-" + profile.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /*
+     * Default request configuration
+     * -----------------------------
+     * Applied to every HTTP request automatically.
+     */
+    private RequestConfig defaultRequestConfig() {
+        return RequestConfig.custom()
+
+                // Maximum time to wait for a free connection from the pool
+                .setConnectionRequestTimeout(
+                        Timeout.ofMilliseconds(CONNECTION_REQUEST_TIMEOUT_MS)
+                )
+
+                // Maximum time waiting for a response
+                .setResponseTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT_MS))
+
+                .build();
+    }
+
+    private SSLConnectionSocketFactory sslSocketFactory(TransportProfile profile) {
+        if (profile == TransportProfile.VERIFIED) {
+            return SSLConnectionSocketFactoryBuilder.create()
+                    .setSslContext(SSLContexts.createSystemDefault())
+                    .build();
+        }
+        return SSLConnectionSocketFactoryBuilder.create()
+                .setSslContext(trustAllSslContext())
+                .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                .build();
+    }
+
+    private TlsStrategy tlsStrategy(TransportProfile profile) {
+        if (profile == TransportProfile.VERIFIED) {
+            return ClientTlsStrategyBuilder.create()
+                    .setSslContext(SSLContexts.createSystemDefault())
+                    .buildAsync();
+        }
+        return ClientTlsStrategyBuilder.create()
+                .setSslContext(trustAllSslContext())
+                .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                .buildAsync();
+    }
+
+    // SSL context that trusts all certificates, for requests sent with verifySsl=false
+    // (self-signed development and test servers)
+    private SSLContext trustAllSslContext() {
+        try {
+            return SSLContextBuilder.create()
+                    .loadTrustMaterial(null, (chain, authType) -> true)
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create the trust-all SSL context", e);
+        }
     }
 }
 
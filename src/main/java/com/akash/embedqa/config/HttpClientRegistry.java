@@ -0,0 +1,177 @@
+package com.akash.embedqa.config;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The pooled HTTP clients used for executions, one per transport profile, plus the
+ * per-request settings applied on top of them.
+ *
+ * Certificate checking is fixed when a connection's TLS session is set up, so it is
+ * the only option that needs a pool of its own: connections made without checks
+ * must never be handed to a request that asked for them. Timeouts and redirect
+ * handling are per-request {@link RequestConfig} and share the profile's pool.
+ * Clients are built on first use, so a profile nobody asks for costs nothing.
+ *
+ * Pools are built with the configured limits, which can be changed at runtime with
+ * {@link #resize(Integer, Integer)}. A resize applies to every pool, and a pool
+ * built after one is brought to the new limits as it is registered.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public class HttpClientRegistry implements AutoCloseable {
+
+    public enum TransportProfile {
+        // Certificates and host names are checked against the JVM trust store
+        VERIFIED,
+        // Any certificate and host name is accepted (self-signed test servers)
+        TRUST_ALL;
+
+        public static TransportProfile of(Boolean verifySsl) {
+            return Boolean.FALSE.equals(verifySsl) ? TRUST_ALL : VERIFIED;
+        }
+    }
+
+    /**
+     * A client together with the connection pool behind it.
+     *
+     * @param name identifies the pool in metrics, e.g. {@code classic-verified}
+     */
+    public record Pool<C>(String name, C client, ConnPoolControl<HttpRoute> control) {
+    }
+
+    private final Function<TransportProfile, Pool<CloseableHttpClient>> classicFactory;
+    // Null unless embedqa.http.engine=async
+    private final Function<TransportProfile, Pool<CloseableHttpAsyncClient>> asyncFactory;
+    private final RequestConfig defaultRequestConfig;
+
+    private final Map<TransportProfile, Pool<CloseableHttpClient>> classicPools = new ConcurrentHashMap<>();
+    private final Map<TransportProfile, Pool<CloseableHttpAsyncClient>> asyncPools = new ConcurrentHashMap<>();
+
+    private volatile int maxTotal;
+    private volatile int maxPerRoute;
+
+    public HttpClientRegistry(Function<TransportProfile, Pool<CloseableHttpClient>> classicFactory,
+                              Function<TransportProfile, Pool<CloseableHttpAsyncClient>> asyncFactory,
+                              RequestConfig defaultRequestConfig, int maxTotal, int maxPerRoute) {
+        checkLimits(maxTotal, maxPerRoute);
+        this.classicFactory = classicFactory;
+        this.asyncFactory = asyncFactory;
+        this.defaultRequestConfig = defaultRequestConfig;
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public CloseableHttpClient classic(TransportProfile profile) {
+        return classicPools.computeIfAbsent(profile, p -> withLimits(classicFactory.apply(p))).client();
+    }
+
+    /**
+     * The non-blocking client for the profile, or empty with the classic engine.
+     */
+    public Optional<CloseableHttpAsyncClient> async(TransportProfile profile) {
+        if (asyncFactory == null) {
+            return Optional.empty();
+        }
+        return Optional.of(asyncPools.computeIfAbsent(profile, p -> withLimits(asyncFactory.apply(p))).client());
+    }
+
+    /**
+     * The pools built so far, by name.
+     */
+    public Map<String, ConnPoolControl<HttpRoute>> pools() {
+        Map<String, ConnPoolControl<HttpRoute>> pools = new TreeMap<>();
+        classicPools.values().forEach(pool -> pools.put(pool.name(), pool.control()));
+        asyncPools.values().forEach(pool -> pools.put(pool.name(), pool.control()));
+        return pools;
+    }
+
+    public int maxTotal() {
+        return maxTotal;
+    }
+
+    public int maxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Changes the connection limits of every pool. Connections above a lowered
+     * limit are closed as they are released, not interrupted.
+     *
+     * @param maxTotal    connections across all routes, or null to keep the current limit
+     * @param maxPerRoute connections per route, or null to keep the current limit
+     * @throws IllegalArgumentException if a limit is below 1 or the per-route limit exceeds the total
+     */
+    public synchronized void resize(Integer maxTotal, Integer maxPerRoute) {
+        int total = maxTotal != null ? maxTotal : this.maxTotal;
+        int perRoute = maxPerRoute != null ? maxPerRoute : this.maxPerRoute;
+        checkLimits(total, perRoute);
+
+        this.maxTotal = total;
+        this.maxPerRoute = perRoute;
+        classicPools.values().forEach(this::withLimits);
+        asyncPools.values().forEach(this::withLimits);
+    }
+
+    private synchronized <C> Pool<C> withLimits(Pool<C> pool) {
+        pool.control().setMaxTotal(maxTotal);
+        pool.control().setDefaultMaxPerRoute(maxPerRoute);
+        return pool;
+    }
+
+    private static void checkLimits(int maxTotal, int maxPerRoute) {
+        if (maxTotal < 1 || maxPerRoute < 1) {
+            throw new IllegalArgumentException("Connection limits must be at least 1");
+        }
+        if (maxPerRoute > maxTotal) {
+            throw new IllegalArgumentException("maxPerRoute (" + maxPerRoute
+                    + ") cannot exceed maxTotal (" + maxTotal + ")");
+        }
+    }
+
+    /**
+     * Request settings for one execution. A null timeout or redirect flag keeps the
+     * default (30 s connect, 60 s response, redirects followed).
+     *
+     * @param timeoutMs connect and response timeout in milliseconds
+     * @throws IllegalArgumentException if the timeout is not positive
+     */
+    @SuppressWarnings("deprecation")
+    public RequestConfig requestConfig(Integer timeoutMs, Boolean followRedirects) {
+        RequestConfig.Builder config = RequestConfig.copy(defaultRequestConfig);
+        if (timeoutMs != null) {
+            if (timeoutMs < 1) {
+                throw new IllegalArgumentException("Timeout must be at least 1 ms");
+            }
+            Timeout timeout = Timeout.ofMilliseconds(timeoutMs);
+            // The per-request connect timeout is deprecated in favour of ConnectionConfig,
+            // which is per pool; both exec runtimes still apply it over the pool default
+            config.setConnectTimeout(timeout)
+                    .setResponseTimeout(timeout);
+        }
+        if (followRedirects != null) {
+            config.setRedirectsEnabled(followRedirects);
+        }
+        return config.build();
+    }
+
+    @Override
+    public void close() throws Exception {
+        asyncPools.values().forEach(pool -> pool.client().close(CloseMode.GRACEFUL));
+        for (Pool<CloseableHttpClient> pool : classicPools.values()) {
+            pool.client().close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.akash.embedqa.config;
+
+import com.akash.embedqa.config.PhaseTimingSupport.LeaseWaitListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Micrometer view of the execution connection pools, tagged by pool and route.
+ *
+ * Per-route meters are registered the first time a route leases a connection, so
+ * only hosts that were actually called show up. Executions can target any host, so
+ * past {@link #MAX_TRACKED_ROUTES} routes further ones share the {@code other} lease
+ * timer and get no gauges.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+final class HttpPoolMetrics {
+
+    static final int MAX_TRACKED_ROUTES = 200;
+
+    private static final String OTHER_ROUTE = "other";
+
+    private final MeterRegistry meterRegistry;
+    // "<pool> <route>" -> lease wait timer
+    private final Map<String, Timer> leaseTimers = new ConcurrentHashMap<>();
+
+    HttpPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registers the pool-wide gauges and returns the listener that times its leases.
+     */
+    LeaseWaitListener bind(String pool, ConnPoolControl<HttpRoute> control) {
+        Gauge.builder("embedqa.http.pool.max.total", control, ConnPoolControl::getMaxTotal)
+                .description("Connections allowed across all routes")
+                .tag("pool", pool)
+                .strongReference(true)
+                .register(meterRegistry);
+
+        return (route, nanos) -> leaseTimer(pool, control, route).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer leaseTimer(String pool, ConnPoolControl<HttpRoute> control, HttpRoute route) {
+        String routeTag = route.getTargetHost().toURI();
+        Timer timer = leaseTimers.get(pool + " " + routeTag);
+        if (timer != null) {
+            return timer;
+        }
+        if (leaseTimers.size() >= MAX_TRACKED_ROUTES) {
+            return leaseTimers.computeIfAbsent(pool + " " + OTHER_ROUTE,
+                    key -> registerLeaseTimer(pool, OTHER_ROUTE));
+        }
+        return leaseTimers.computeIfAbsent(pool + " " + routeTag, key -> {
+            registerRouteGauges(pool, control, route, routeTag);
+            return registerLeaseTimer(pool, routeTag);
+        });
+    }
+
+    private Timer registerLeaseTimer(String pool, String routeTag) {
+        return Timer.builder("embedqa.http.pool.lease.wait")
+                .description("Time executions waited for a pooled connection")
+                .tags(Tags.of("pool", pool, "route", routeTag))
+                .register(meterRegistry);
+    }
+
+    private void registerRouteGauges(String pool, ConnPoolControl<HttpRoute> control, HttpRoute route,
+                                     String routeTag) {
+        Tags tags = Tags.of("pool", pool, "route", routeTag);
+        routeGauge("embedqa.http.pool.connections", "Pooled connections by state",
+                tags.and("state", "leased"), control, route, PoolStats::getLeased);
+        routeGauge("embedqa.http.pool.connections", "Pooled connections by state",
+                tags.and("state", "available"), control, route, PoolStats::getAvailable);
+        routeGauge("embedqa.http.pool.pending", "Executions waiting for a connection",
+                tags, control, route, PoolStats::getPending);
+        routeGauge("embedqa.http.pool.max.per.route", "Connections allowed to this route",
+                tags, control, route, PoolStats::getMax);
+    }
+
+    private void routeGauge(String name, String description, Tags tags, ConnPoolControl<HttpRoute> control,
+                            HttpRoute route, ToIntFunction<PoolStats> stat) {
+        Gauge.builder(name, () -> stat.applyAsInt(control.getStats(route)))
+                .description(description)
+                .tags(tags)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,274 @@
+package com.akash.embedqa.config;
+
+import com.akash.embedqa.utils.PhaseTimings;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.SchemePortResolver;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.impl.io.DefaultHttpClientConnectionOperator;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.DefaultAsyncClientConnectionOperator;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionOperator;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.client5.http.ssl.TlsSocketStrategy;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Hooks that record {@link PhaseTimings} for exchanges carrying them.
+ *
+ * Connection phases come from the connection operator's connect and TLS callbacks.
+ * The lease starts at the connect element of the exec chain, which takes a pooled
+ * connection; first byte is taken around the main transport, the last element,
+ * which writes the request and returns once the response head is read.
+ *
+ * The async operator resolves host names inside the I/O session requester, out of
+ * reach of these callbacks, so with the async engine the lookup is part of the
+ * connect time and no DNS phase is reported.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+final class PhaseTimingSupport {
+
+    static final String LEASE_INTERCEPTOR_NAME = "embedqa-lease-timing";
+    static final String INTERCEPTOR_NAME = "embedqa-phase-timing";
+
+    /**
+     * Receives the time each exchange waited for a pooled connection.
+     */
+    @FunctionalInterface
+    interface LeaseWaitListener {
+
+        LeaseWaitListener NONE = (route, nanos) -> {
+        };
+
+        void leaseWait(HttpRoute route, long nanos);
+    }
+
+    private PhaseTimingSupport() {
+    }
+
+    /**
+     * A connection manager builder whose connections report their DNS, connect and
+     * TLS phases.
+     */
+    static PoolingHttpClientConnectionManagerBuilder connectionManagerBuilder() {
+        return new PoolingHttpClientConnectionManagerBuilder() {
+            @Override
+            protected HttpClientConnectionOperator createConnectionOperator(
+                    SchemePortResolver schemePortResolver, DnsResolver dnsResolver,
+                    TlsSocketStrategy tlsSocketStrategy) {
+                return new TimedConnectionOperator(schemePortResolver, dnsResolver, tlsSocketStrategy);
+            }
+        };
+    }
+
+    static PoolingAsyncClientConnectionManagerBuilder asyncConnectionManagerBuilder() {
+        return new PoolingAsyncClientConnectionManagerBuilder() {
+            @Override
+            protected AsyncClientConnectionOperator createConnectionOperator(
+                    TlsStrategy tlsStrategy, SchemePortResolver schemePortResolver, DnsResolver dnsResolver) {
+                return new TimedAsyncConnectionOperator(tlsStrategy, schemePortResolver, dnsResolver);
+            }
+        };
+    }
+
+    /**
+     * Exec chain element to install right before the connect element, which leases
+     * the pooled connection (and opens it if needed). Lease timeouts are reported to
+     * the listener here, as such exchanges never reach the transport.
+     */
+    static ExecChainHandler leaseInterceptor(LeaseWaitListener listener) {
+        return (request, scope, chain) -> {
+            PhaseTimings timings = timingsOf(scope.clientContext);
+            timings.leaseStarted();
+            try {
+                return chain.proceed(request, scope);
+            } catch (ConnectionRequestTimeoutException e) {
+                listener.leaseWait(scope.route, timings.leaseWaitNanos());
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Exec chain element to install right before the main transport.
+     */
+    static ExecChainHandler execInterceptor(LeaseWaitListener listener) {
+        return (request, scope, chain) -> {
+            PhaseTimings timings = timingsOf(scope.clientContext);
+            timings.requestSent();
+            listener.leaseWait(scope.route, timings.leaseWaitNanos());
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            timings.firstByteReceived();
+            return response;
+        };
+    }
+
+    static AsyncExecChainHandler asyncLeaseInterceptor(LeaseWaitListener listener) {
+        return (request, entityProducer, scope, chain, callback) -> {
+            PhaseTimings timings = timingsOf(scope.clientContext);
+            timings.leaseStarted();
+            chain.proceed(request, entityProducer, scope, new ForwardingExecCallback(callback) {
+                @Override
+                public void failed(Exception cause) {
+                    // The async pool fails a lease that ran out of time with a TimeoutException
+                    if (cause instanceof TimeoutException) {
+                        listener.leaseWait(scope.route, timings.leaseWaitNanos());
+                    }
+                    super.failed(cause);
+                }
+            });
+        };
+    }
+
+    static AsyncExecChainHandler asyncExecInterceptor(LeaseWaitListener listener) {
+        return (request, entityProducer, scope, chain, callback) -> {
+            PhaseTimings timings = timingsOf(scope.clientContext);
+            timings.requestSent();
+            listener.leaseWait(scope.route, timings.leaseWaitNanos());
+            chain.proceed(request, entityProducer, scope, new ForwardingExecCallback(callback) {
+                @Override
+                public AsyncDataConsumer handleResponse(HttpResponse response, EntityDetails entityDetails)
+                        throws HttpException, IOException {
+                    timings.firstByteReceived();
+                    return super.handleResponse(response, entityDetails);
+                }
+            });
+        };
+    }
+
+    private static PhaseTimings timingsOf(HttpContext context) {
+        PhaseTimings timings = PhaseTimings.from(context);
+        return timings != null ? timings : PhaseTimings.attach(context);
+    }
+
+    private static void mark(HttpContext context, Consumer<PhaseTimings> phase) {
+        PhaseTimings timings = PhaseTimings.from(context);
+        if (timings != null) {
+            phase.accept(timings);
+        }
+    }
+
+    private static class ForwardingExecCallback implements AsyncExecCallback {
+
+        private final AsyncExecCallback delegate;
+
+        ForwardingExecCallback(AsyncExecCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public AsyncDataConsumer handleResponse(HttpResponse response, EntityDetails entityDetails)
+                throws HttpException, IOException {
+            return delegate.handleResponse(response, entityDetails);
+        }
+
+        @Override
+        public void handleInformationResponse(HttpResponse response) throws HttpException, IOException {
+            delegate.handleInformationResponse(response);
+        }
+
+        @Override
+        public void completed() {
+            delegate.completed();
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            delegate.failed(cause);
+        }
+    }
+
+    private static class TimedConnectionOperator extends DefaultHttpClientConnectionOperator {
+
+        TimedConnectionOperator(SchemePortResolver schemePortResolver, DnsResolver dnsResolver,
+                                TlsSocketStrategy tlsSocketStrategy) {
+            super(schemePortResolver, dnsResolver, RegistryBuilder.<TlsSocketStrategy>create()
+                    .register(URIScheme.HTTPS.id, tlsSocketStrategy)
+                    .build());
+        }
+
+        @Override
+        public void connect(ManagedHttpClientConnection conn, HttpHost endpointHost, NamedEndpoint endpointName,
+                            InetSocketAddress localAddress, Timeout connectTimeout, SocketConfig socketConfig,
+                            Object attachment, HttpContext context) throws IOException {
+            // The host name is resolved first, before the first onBeforeSocketConnect
+            mark(context, PhaseTimings::connectStarted);
+            super.connect(conn, endpointHost, endpointName, localAddress, connectTimeout, socketConfig,
+                    attachment, context);
+        }
+
+        @Override
+        protected void onBeforeSocketConnect(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::socketConnectStarted);
+        }
+
+        @Override
+        protected void onAfterSocketConnect(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::socketConnected);
+        }
+
+        @Override
+        protected void onBeforeTlsHandshake(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::tlsStarted);
+        }
+
+        @Override
+        protected void onAfterTlsHandshake(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::tlsDone);
+        }
+    }
+
+    private static class TimedAsyncConnectionOperator extends DefaultAsyncClientConnectionOperator {
+
+        TimedAsyncConnectionOperator(TlsStrategy tlsStrategy, SchemePortResolver schemePortResolver,
+                                     DnsResolver dnsResolver) {
+            super(RegistryBuilder.<TlsStrategy>create()
+                    .register(URIScheme.HTTPS.id, tlsStrategy)
+                    .build(), schemePortResolver, dnsResolver);
+        }
+
+        @Override
+        protected void onBeforeSocketConnect(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::socketConnectStarted);
+        }
+
+        @Override
+        protected void onAfterSocketConnect(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::socketConnected);
+        }
+
+        @Override
+        protected void onBeforeTlsHandshake(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::tlsStarted);
+        }
+
+        @Override
+        protected void onAfterTlsHandshake(HttpContext context, HttpHost endpointHost) {
+            mark(context, PhaseTimings::tlsDone);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.akash.embedqa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} maintenance jobs (history partitions and retention).
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,18 +1,34 @@
 package com.akash.embedqa.controller;
 
+import com.akash.embedqa.exception.ResourceNotFoundException;
 import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
+import com.akash.embedqa.model.dtos.request.LoadTestDTO;
 import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
 import com.akash.embedqa.model.dtos.response.ApiResult;
+import com.akash.embedqa.model.dtos.response.LoadTestSnapshotDTO;
 import com.akash.embedqa.service.ApiExecutorService;
+import com.akash.embedqa.service.ResponseBodySpool;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Author: akash
@@ -24,16 +40,68 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class ApiExecutorController {
 
+    // Extra emitter lifetime beyond the test duration for in-flight requests to drain
+    private static final long LOAD_TEST_GRACE_MS = TimeUnit.SECONDS.toMillis(90);
+
     private final ApiExecutorService apiExecutorService;
+    private final ResponseBodySpool responseBodySpool;
 
     @PostMapping
     @Operation(summary = "Execute an API request", description = "Execute an HTTP request and return the response")
-    public ResponseEntity<ApiResult<ApiResponseDTO>> executeRequest(
+    public CompletableFuture<ResponseEntity<ApiResult<ApiResponseDTO>>> executeRequest(
             @Valid @RequestBody ExecuteRequestDTO request) {
         log.info("Executing {} request to: {}", request.getMethod(), request.getUrl());
 
-        ApiResponseDTO response = apiExecutorService.executeRequest(request);
+        // The servlet thread is released while an async execution is in flight
+        return apiExecutorService.executeRequestAsync(request)
+                .thenApply(response -> ResponseEntity.ok(ApiResult.success(response, "Request executed successfully")));
+    }
+
+    @GetMapping("/bodies/{bodyId}")
+    @Operation(summary = "Download a full response body",
+            description = "Full body of a response that exceeded the capture limit, by the bodyId of the execution. "
+                    + "Only available with spill enabled, until the body expires.")
+    public ResponseEntity<Resource> getResponseBody(@PathVariable String bodyId) {
+        Path file = responseBodySpool.find(bodyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Response body", bodyId));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    @PostMapping(path = "/load", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Run a load test",
+            description = "Drive a request at a target rate or concurrency for a duration. Streams a 'snapshot' "
+                    + "event every second and a final 'summary' event. Samples are not saved to history.")
+    public SseEmitter runLoadTest(@Valid @RequestBody LoadTestDTO options) {
+        log.info("Load test requested for {}s", options.getDurationSeconds());
+
+        SseEmitter emitter = new SseEmitter(
+                TimeUnit.SECONDS.toMillis(options.getDurationSeconds()) + LOAD_TEST_GRACE_MS);
+
+        apiExecutorService.runLoadTest(options, snapshot -> send(emitter, "snapshot", snapshot))
+                .whenComplete((summary, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error);
+                        return;
+                    }
+                    try {
+                        send(emitter, "summary", summary);
+                        emitter.complete();
+                    } catch (UncheckedIOException e) {
+                        log.debug("Client disconnected before the load test summary was sent");
+                    }
+                });
+        return emitter;
+    }
 
-        return ResponseEntity.ok(ApiResult.success(response, "Request executed successfully"));
+    private void send(SseEmitter emitter, String event, LoadTestSnapshotDTO snapshot) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            // Thrown back into the runner, which stops the test
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -1,14 +1,24 @@
 package com.akash.embedqa.controller;
 
 import com.akash.embedqa.model.dtos.request.CollectionDTO;
+import com.akash.embedqa.model.dtos.request.CollectionRunDTO;
 import com.akash.embedqa.model.dtos.response.ApiResult;
+import com.akash.embedqa.model.dtos.response.CollectionIndexDTO;
 import com.akash.embedqa.model.dtos.response.CollectionResponseDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunReportDTO;
+import com.akash.embedqa.model.dtos.response.PageInfoDTO;
+import com.akash.embedqa.model.dtos.response.PagedApiResultDTO;
+import com.akash.embedqa.model.dtos.response.RequestSummaryDTO;
+import com.akash.embedqa.service.CollectionRunnerService;
 import com.akash.embedqa.service.CollectionService;
+import com.akash.embedqa.utils.IdCursor;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,6 +37,7 @@ import java.util.List;
 public class CollectionController {
 
     private final CollectionService collectionService;
+    private final CollectionRunnerService collectionRunnerService;
 
     @PostMapping
     @Operation(summary = "Create collection", description = "Create a new API collection")
@@ -46,6 +57,47 @@ public class CollectionController {
         return ResponseEntity.ok(ApiResult.success(collections));
     }
 
+    @GetMapping("/index")
+    @Operation(summary = "Get collection index",
+            description = "Id, name and request count of every collection, without the requests; "
+                    + "load members with /{id}/requests")
+    public ResponseEntity<ApiResult<List<CollectionIndexDTO>>> getIndex() {
+        List<CollectionIndexDTO> index = collectionService.getIndex();
+        return ResponseEntity.ok(ApiResult.success(index));
+    }
+
+    @GetMapping("/{id}/requests")
+    @Operation(summary = "Get collection requests",
+            description = "Keyset-paged requests of a collection in creation order: no totals, "
+                    + "constant cost at any depth, and pageInfo.nextCursor for the following page")
+    public ResponseEntity<PagedApiResultDTO<RequestSummaryDTO>> getRequests(
+            @PathVariable Long id,
+
+            @Parameter(description = "Keyset cursor from pageInfo.nextCursor; omit for the first page")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<RequestSummaryDTO> slice = collectionService.getRequestsAfter(id, cursor, size);
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            nextCursor = new IdCursor(slice.getContent().getLast().getId()).encode();
+        }
+
+        PagedApiResultDTO<RequestSummaryDTO> result = new PagedApiResultDTO<>();
+        result.setSuccess(true);
+        result.setData(slice.getContent());
+        result.setPageInfo(PageInfoDTO.builder()
+                .size(slice.getSize())
+                .first(cursor == null || cursor.isBlank())
+                .last(!slice.hasNext())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build());
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get collection by ID", description = "Retrieve a collection with all its requests")
     public ResponseEntity<ApiResult<CollectionResponseDTO>> getById(@PathVariable Long id) {
@@ -64,5 +116,17 @@ public class CollectionController {
         return ResponseEntity.ok(ApiResult.success(updated, "Collection updated successfully"));
     }
 
+    @PostMapping("/{id}/run")
+    @Operation(summary = "Run collection",
+            description = "Execute every request in the collection (parallel, sequential or dependency-ordered) and return a run report")
+    public ResponseEntity<ApiResult<CollectionRunReportDTO>> run(
+            @PathVariable Long id,
+            @Valid @RequestBody(required = false) CollectionRunDTO options) {
+        log.info("Running collection: {}", id);
+
+        CollectionRunReportDTO report = collectionRunnerService.run(id, options);
+        return ResponseEntity.ok(ApiResult.success(report, "Collection run completed"));
+    }
+
 
 }
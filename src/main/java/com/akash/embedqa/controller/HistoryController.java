@@ -1,8 +1,12 @@
 package com.akash.embedqa.controller;
 
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.enums.RollupInterval;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
 import com.akash.embedqa.model.dtos.response.*;
 import com.akash.embedqa.service.HistoryService;
+import com.akash.embedqa.utils.HistoryCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,12 +15,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Author: akash
@@ -35,7 +41,10 @@ public class HistoryController {
     @GetMapping
     @Operation(
             summary = "Get request history",
-            description = "Retrieve paginated request history with optional filtering by method, status, search text, and date range"
+            description = "Retrieve paginated request history with optional filtering by method, status, search text, and date range. "
+                    + "Passing cursor (empty for the first page) switches to keyset paging: no totals, "
+                    + "constant cost at any depth, and pageInfo.nextCursor for the following page. "
+                    + "The date range is [fromDate, toDate): toDate itself is excluded"
     )
     public ResponseEntity<PagedApiResultDTO<HistoryResponseDTO>> getHistory(
             @Parameter(description = "Page number (0-based)")
@@ -44,6 +53,9 @@ public class HistoryController {
             @Parameter(description = "Page size")
             @RequestParam(defaultValue = "20") int size,
 
+            @Parameter(description = "Keyset cursor from pageInfo.nextCursor; empty for the first page. Overrides page")
+            @RequestParam(required = false) String cursor,
+
             @Parameter(description = "Filter by HTTP method")
             @RequestParam(required = false) HttpMethod method,
 
@@ -53,17 +65,22 @@ public class HistoryController {
             @Parameter(description = "Search in URL")
             @RequestParam(required = false) String search,
 
-            @Parameter(description = "Filter from date (ISO format)")
+            @Parameter(description = "Filter from date, inclusive (ISO format)")
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
 
-            @Parameter(description = "Filter to date (ISO format)")
+            @Parameter(description = "Filter to date, exclusive (ISO format)")
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate
     ) {
         log.debug("Fetching history - page: {}, size: {}, method: {}, statusCode: {}, search: {}",
                 page, size, method, statusCode, search);
 
+        if (cursor != null) {
+            return ResponseEntity.ok(getHistoryAfter(
+                    new HistoryFilterDTO(method, statusCode, search, fromDate, toDate), cursor, size));
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "executedAt"));
         Page<HistoryResponseDTO> historyPage = historyService.getHistory(
                 method, statusCode, search, fromDate, toDate, pageable
@@ -84,6 +101,28 @@ public class HistoryController {
         return ResponseEntity.ok(result);
     }
 
+    private PagedApiResultDTO<HistoryResponseDTO> getHistoryAfter(HistoryFilterDTO filter, String cursor, int size) {
+        Slice<HistoryResponseDTO> slice = historyService.getHistoryAfter(filter, cursor, size);
+
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            HistoryResponseDTO last = slice.getContent().getLast();
+            nextCursor = new HistoryCursor(last.getExecutedAt(), last.getId()).encode();
+        }
+
+        PagedApiResultDTO<HistoryResponseDTO> result = new PagedApiResultDTO<>();
+        result.setSuccess(true);
+        result.setData(slice.getContent());
+        result.setPageInfo(PageInfoDTO.builder()
+                .size(slice.getSize())
+                .first(cursor.isBlank())
+                .last(!slice.hasNext())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build());
+        return result;
+    }
+
     /**
      * Get a single history entry by ID with full request/response details.
      */
@@ -102,6 +141,24 @@ public class HistoryController {
         return ResponseEntity.ok(ApiResult.success(history));
     }
 
+    @GetMapping("/{id}/body")
+    @Operation(
+            summary = "Get response body of a history entry",
+            description = "Response body as received (RAW) or pretty-printed JSON/XML (PRETTY). "
+                    + "Formatting happens on first request and is cached"
+    )
+    public ResponseEntity<ApiResult<String>> getResponseBody(
+            @Parameter(description = "History entry ID")
+            @PathVariable Long id,
+
+            @Parameter(description = "RAW or PRETTY")
+            @RequestParam(defaultValue = "RAW") BodyFormat format
+    ) {
+        log.debug("Fetching response body of history entry: {} ({})", id, format);
+
+        return ResponseEntity.ok(ApiResult.success(historyService.getResponseBody(id, format)));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete history entry",
@@ -132,24 +189,76 @@ public class HistoryController {
     @GetMapping("/stats")
     @Operation(
             summary = "Get history statistics",
-            description = "Retrieve statistics about request history including total requests, success/error counts, and method breakdown"
+            description = "Retrieve statistics about request history including total requests, success/error counts, "
+                    + "latency percentiles and method breakdown, optionally filtered like the history list. "
+                    + "The date range is [fromDate, toDate), the same as for the list"
     )
-    public ResponseEntity<ApiResult<HistoryStatsDTO>> getStats() {
-        log.debug("Fetching history statistics");
+    public ResponseEntity<ApiResult<HistoryStatsDTO>> getStats(
+            @Parameter(description = "Filter by HTTP method")
+            @RequestParam(required = false) HttpMethod method,
+
+            @Parameter(description = "Filter by status code (200 for success < 400, 400 for errors >= 400)")
+            @RequestParam(required = false) Integer statusCode,
+
+            @Parameter(description = "Search in URL")
+            @RequestParam(required = false) String search,
+
+            @Parameter(description = "Filter from date, inclusive (ISO format)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+
+            @Parameter(description = "Filter to date, exclusive (ISO format)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate
+    ) {
+        log.debug("Fetching history statistics - method: {}, statusCode: {}", method, statusCode);
+
+        HistoryService.HistoryStats stats = historyService.getStats(
+                new HistoryFilterDTO(method, statusCode, search, fromDate, toDate));
 
-        HistoryService.HistoryStats stats = historyService.getStats();
-        
         HistoryStatsDTO dto = new HistoryStatsDTO(
                 stats.totalRequests(),
                 stats.successCount(),
                 stats.errorCount(),
                 stats.avgResponseTime(),
+                stats.p50ResponseTime(),
+                stats.p95ResponseTime(),
+                stats.p99ResponseTime(),
                 stats.methodBreakdown()
         );
 
         return ResponseEntity.ok(ApiResult.success(dto));
     }
 
+    @GetMapping("/timeseries")
+    @Operation(
+            summary = "Get history time series",
+            description = "Request count, errors and latency per minute or hour bucket, read from the history rollups"
+    )
+    public ResponseEntity<ApiResult<List<HistoryTimeSeriesPointDTO>>> getTimeSeries(
+            @Parameter(description = "Bucket width")
+            @RequestParam(defaultValue = "MINUTE") RollupInterval interval,
+
+            @Parameter(description = "Series start (ISO format); defaults to one hour/day before toDate")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+
+            @Parameter(description = "Series end (ISO format); defaults to now")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+
+            @Parameter(description = "Filter by HTTP method")
+            @RequestParam(required = false) HttpMethod method,
+
+            @Parameter(description = "Filter by target host")
+            @RequestParam(required = false) String host
+    ) {
+        log.debug("Fetching history time series - interval: {}, from: {}, to: {}", interval, fromDate, toDate);
+
+        List<HistoryTimeSeriesPointDTO> points = historyService.getTimeSeries(interval, fromDate, toDate, method, host);
+        return ResponseEntity.ok(ApiResult.success(points));
+    }
+
     @DeleteMapping("/older-than/{days}")
     @Operation(
             summary = "Delete old history",
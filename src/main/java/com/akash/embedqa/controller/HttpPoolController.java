@@ -0,0 +1,47 @@
+package com.akash.embedqa.controller;
+
+import com.akash.embedqa.model.dtos.request.HttpPoolLimitsDTO;
+import com.akash.embedqa.model.dtos.response.ApiResult;
+import com.akash.embedqa.model.dtos.response.HttpPoolStatsDTO;
+import com.akash.embedqa.service.HttpPoolService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Operator endpoints for the execution connection pools. Disabled unless
+ * {@code embedqa.http.pool.admin.enabled=true}.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@RestController
+@RequestMapping("/api/v1/admin/http-pools")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "embedqa.http.pool.admin.enabled", havingValue = "true")
+@Tag(name = "HTTP Pools", description = "Inspect and resize the execution connection pools")
+public class HttpPoolController {
+
+    private final HttpPoolService httpPoolService;
+
+    @GetMapping
+    @Operation(summary = "Get pools", description = "Limits and connection counts of every pool in use")
+    public ResponseEntity<ApiResult<List<HttpPoolStatsDTO>>> getPools() {
+        return ResponseEntity.ok(ApiResult.success(httpPoolService.getPools()));
+    }
+
+    @PutMapping
+    @Operation(summary = "Resize pools",
+            description = "Change the total and per-route connection limits of every pool without a restart")
+    public ResponseEntity<ApiResult<List<HttpPoolStatsDTO>>> resize(
+            @Valid @RequestBody HttpPoolLimitsDTO limits) {
+        List<HttpPoolStatsDTO> pools = httpPoolService.resize(limits);
+        return ResponseEntity.ok(ApiResult.success(pools, "HTTP pools resized successfully"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.akash.embedqa.enums;
+
+/**
+ * How a response body is returned to the client.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public enum BodyFormat {
+    // Exactly as received
+    RAW,
+    // JSON and XML pretty-printed; other bodies as received
+    PRETTY
+}
@@ -0,0 +1,13 @@
+package com.akash.embedqa.enums;
+
+/**
+ * Kind of entity named in a cache invalidation message.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public enum CacheTopic {
+    ENVIRONMENT,
+    API_REQUEST,
+    COLLECTION
+}
@@ -0,0 +1,16 @@
+package com.akash.embedqa.enums;
+
+/**
+ * What the history writer does with a new entry when its queue is full.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public enum HistoryOverflowPolicy {
+    // Wait for room; executions slow down to the database's pace
+    BLOCK,
+    // Discard the entry and count it
+    DROP,
+    // Append the entry to a file on disk; it is written once the queue has drained
+    SPILL
+}
@@ -0,0 +1,28 @@
+package com.akash.embedqa.enums;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket width of the history rollup tables.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Getter
+public enum RollupInterval {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS);
+
+    private final ChronoUnit unit;
+
+    RollupInterval(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+}
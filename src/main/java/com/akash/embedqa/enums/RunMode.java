@@ -0,0 +1,16 @@
+package com.akash.embedqa.enums;
+
+/**
+ * How a collection run schedules its requests.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public enum RunMode {
+    // All requests at once, bounded by the run's parallelism
+    PARALLEL,
+    // One after another in collection order
+    SEQUENTIAL,
+    // In waves: a request starts once everything it depends on has passed
+    DEPENDENCY_ORDERED
+}
@@ -0,0 +1,16 @@
+package com.akash.embedqa.enums;
+
+/**
+ * Result of a single request within a collection run.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public enum RunOutcome {
+    // 1xx-3xx response
+    PASSED,
+    // 4xx/5xx response or the call itself failed
+    FAILED,
+    // Not executed: a dependency failed, or the run stopped on failure
+    SKIPPED
+}
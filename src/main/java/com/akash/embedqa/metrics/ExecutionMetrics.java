@@ -0,0 +1,203 @@
+package com.akash.embedqa.metrics;
+
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.utils.PhaseTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each stage of an execution, so dashboards can tell whether EmbedQA itself or
+ * the upstream dominates latency.
+ *
+ * Stages are collected per execution and published once it ends, when the status is
+ * known: {@code embedqa.execution.stage} per stage and {@code embedqa.execution} end
+ * to end, tagged with method, target host and status class ({@code 2xx} ...
+ * {@code 5xx}, or {@code failed}). Both publish SLO buckets. Failures are also
+ * counted in {@code embedqa.execution.errors} by kind and exception.
+ *
+ * Target hosts are whatever users type, so past {@link #MAX_TRACKED_HOSTS} hosts
+ * further ones are tagged {@code other}.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Component
+@RequiredArgsConstructor
+public class ExecutionMetrics {
+
+    static final int MAX_TRACKED_HOSTS = 200;
+
+    private static final String OTHER_HOST = "other";
+    // Before the URL could be parsed
+    private static final String UNKNOWN_HOST = "none";
+    private static final String FAILED = "failed";
+
+    // From sub-millisecond template work up to the 60 s response timeout
+    private static final Duration[] SLO_BUCKETS = {
+            Duration.ofNanos(100_000), Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5),
+            Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofSeconds(60)};
+
+    public enum Stage {
+        // Environment variables, from the cache or the database
+        ENV_LOOKUP("env_lookup"),
+        // Placeholder substitution and building the HTTP request; placeholders are
+        // resolved part by part as the URL, headers, auth and body are built
+        REQUEST_BUILD("request_build"),
+        // From handing the request to the client until the response head arrives,
+        // including the pool lease, connect and TLS
+        UPSTREAM("upstream"),
+        // Reading and capturing the response body
+        BODY_READ("body_read"),
+        PRETTY_PRINT("pretty_print"),
+        // Hand-off to the history writer
+        HISTORY_SAVE("history_save");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> trackedHosts = ConcurrentHashMap.newKeySet();
+
+    public Execution start(HttpMethod method) {
+        return new Execution(method != null ? method.name() : "UNKNOWN");
+    }
+
+    /**
+     * The stages of one execution. Used by one thread at a time; the async path hands
+     * it between threads through its completion stages.
+     */
+    public final class Execution {
+
+        private final String method;
+        private final long startNanos = System.nanoTime();
+        private final long[] stageNanos = new long[Stage.values().length];
+        private String host = UNKNOWN_HOST;
+        private long upstreamStarted;
+        private boolean upstreamDone;
+
+        private Execution(String method) {
+            this.method = method;
+        }
+
+        /**
+         * Records a stage that started at {@code startNanos} and ends now.
+         */
+        public void stage(Stage stage, long startNanos) {
+            stageNanos[stage.ordinal()] += System.nanoTime() - startNanos;
+        }
+
+        public void target(URI uri) {
+            host = hostTag(uri.getHost());
+        }
+
+        public void upstreamStarted() {
+            upstreamStarted = System.nanoTime();
+        }
+
+        /**
+         * Splits the exchange into upstream and body read at the first byte of the
+         * response head.
+         */
+        public void upstreamCompleted(PhaseTimings timings) {
+            long firstByte = timings.firstByteNanos();
+            long bodyReceived = timings.bodyReceivedNanos();
+            if (firstByte == 0 || bodyReceived == 0) {
+                stage(Stage.UPSTREAM, upstreamStarted);
+            } else {
+                stageNanos[Stage.UPSTREAM.ordinal()] += firstByte - upstreamStarted;
+                stageNanos[Stage.BODY_READ.ordinal()] += bodyReceived - firstByte;
+            }
+            upstreamDone = true;
+        }
+
+        /**
+         * Publishes the stages, with the status class of the response or, without a
+         * status code, as failed.
+         */
+        public void completed(Integer statusCode) {
+            publish(statusCode != null ? statusCode / 100 + "xx" : FAILED);
+        }
+
+        /**
+         * Counts the failure. Time spent on an exchange that failed (refused, timed out)
+         * counts as upstream.
+         */
+        public void failed(Exception e) {
+            if (upstreamStarted != 0 && !upstreamDone) {
+                stage(Stage.UPSTREAM, upstreamStarted);
+                upstreamDone = true;
+            }
+            Counter.builder("embedqa.execution.errors")
+                    .description("Executions that ended without a response")
+                    .tags(Tags.of("method", method, "host", host,
+                            "kind", errorKind(e), "exception", e.getClass().getSimpleName()))
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        private void publish(String status) {
+            Tags tags = Tags.of("method", method, "host", host, "status", status);
+            for (Stage stage : Stage.values()) {
+                long nanos = stageNanos[stage.ordinal()];
+                // Stages that did not run (no environment, no pretty-print) are left out
+                if (nanos > 0) {
+                    timer("embedqa.execution.stage", "Time spent in one stage of an execution",
+                            tags.and("stage", stage.tag)).record(nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            timer("embedqa.execution", "End-to-end time of an execution", tags)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .serviceLevelObjectives(SLO_BUCKETS)
+                .register(meterRegistry);
+    }
+
+    private String hostTag(String host) {
+        if (host == null || host.isEmpty()) {
+            return UNKNOWN_HOST;
+        }
+        if (trackedHosts.contains(host)) {
+            return host;
+        }
+        // Racing threads may overshoot the cap by a few hosts, which is harmless
+        if (trackedHosts.size() >= MAX_TRACKED_HOSTS) {
+            return OTHER_HOST;
+        }
+        trackedHosts.add(host);
+        return host;
+    }
+
+    private static String errorKind(Exception e) {
+        if (e instanceof URISyntaxException) {
+            return "invalid_url";
+        }
+        if (e instanceof IOException) {
+            return "io";
+        }
+        return "unexpected";
+    }
+}
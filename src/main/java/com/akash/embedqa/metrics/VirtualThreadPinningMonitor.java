@@ -0,0 +1,102 @@
+package com.akash.embedqa.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread
+ * (blocking inside {@code synchronized} or native frames).
+ *
+ * A pinned virtual thread blocks a carrier, so a few pinned sections on the
+ * HTTP pool or JDBC path cap concurrency at the carrier count. The monitor
+ * subscribes to the JFR {@code jdk.VirtualThreadPinned} event, logs the
+ * offending frames and counts occurrences in {@code embedqa.virtual_threads.pinned},
+ * tagged with the first application or HttpClient frame on the stack.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    // Frames worth attributing a pin to; anything else is reported as "other"
+    private static final List<String> TRACKED_PACKAGES = List.of("com.akash.embedqa", "org.apache.hc");
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${embedqa.virtual-threads.pinning-threshold-ms:20}")
+    private long pinningThresholdMs;
+
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(pinningThresholdMs))
+                .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", pinningThresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames()
+                : List.of();
+
+        String origin = frames.stream()
+                .map(this::frameName)
+                .filter(name -> TRACKED_PACKAGES.stream().anyMatch(name::startsWith))
+                .findFirst()
+                .orElse("other");
+
+        Counter.builder("embedqa.virtual_threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .tag("origin", origin)
+                .register(meterRegistry)
+                .increment();
+
+        log.warn("Virtual thread pinned for {} ms at {}:\n\t{}",
+                event.getDuration().toMillis(),
+                origin,
+                frames.stream()
+                        .limit(LOGGED_FRAMES)
+                        .map(this::frameName)
+                        .collect(Collectors.joining("\n\t")));
+    }
+
+    private String frameName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,52 @@
+package com.akash.embedqa.model.dtos.request;
+
+import com.akash.embedqa.enums.RunMode;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options for running every request of a collection.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionRunDTO {
+
+    @NotNull(message = "Run mode is required")
+    @Builder.Default
+    private RunMode mode = RunMode.PARALLEL;
+
+    // Requests in flight at once; capped at the client's per-route connection limit
+    @NotNull(message = "Parallelism is required")
+    @Min(value = 1, message = "Parallelism must be at least 1")
+    @Builder.Default
+    private Integer parallelism = 10;
+
+    // Optional: overrides the environment saved on each request
+    private Long environmentId;
+
+    // SEQUENTIAL only: skip the remaining requests after the first failure
+    @Builder.Default
+    private Boolean stopOnFailure = false;
+
+    // DEPENDENCY_ORDERED only: request ID -> IDs of requests that must pass first
+    @NotNull(message = "Dependencies must not be null")
+    @Builder.Default
+    private Map<Long, List<Long>> dependencies = new HashMap<>();
+
+    @NotNull(message = "Save to history is required")
+    @Builder.Default
+    private Boolean saveToHistory = true;
+}
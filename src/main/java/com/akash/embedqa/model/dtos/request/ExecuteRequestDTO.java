@@ -1,9 +1,12 @@
 package com.akash.embedqa.model.dtos.request;
 
 import com.akash.embedqa.enums.AuthType;
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.BodyType;
 import com.akash.embedqa.enums.HttpMethod;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -64,7 +67,10 @@ public class ExecuteRequestDTO {
     // Optional: Collection ID for saving
     private Long collectionId;
 
-    // Timeout in milliseconds (default: 30000)
+    // Timeout in milliseconds (default: 30000). Connect and response each get it, so
+    // the cap keeps twice the timeout within the 120 s async request timeout
+    @Min(value = 1, message = "Timeout must be at least 1 ms")
+    @Max(value = 60000, message = "Timeout must be at most 60000 ms")
     @Builder.Default
     private Integer timeout = 30000;
 
@@ -75,5 +81,9 @@ public class ExecuteRequestDTO {
     // Verify SSL certificates
     @Builder.Default
     private Boolean verifySsl = true;
+
+    // Response body as received (RAW) or pretty-printed JSON/XML (PRETTY); history always keeps it raw
+    @Builder.Default
+    private BodyFormat format = BodyFormat.RAW;
 }
 
@@ -0,0 +1,27 @@
+package com.akash.embedqa.model.dtos.request;
+
+import com.akash.embedqa.enums.HttpMethod;
+
+import java.time.LocalDateTime;
+
+/**
+ * History filters shared by listing and statistics. Every field is optional.
+ * {@code statusCode} follows the frontend convention: 200 selects all 2xx/3xx,
+ * any value >= 400 selects all errors, anything else is an exact match.
+ * Dates select the half-open range [fromDate, toDate).
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public record HistoryFilterDTO(
+        HttpMethod method,
+        Integer statusCode,
+        String search,
+        LocalDateTime fromDate,
+        LocalDateTime toDate
+) {
+
+    public static HistoryFilterDTO none() {
+        return new HistoryFilterDTO(null, null, null, null, null);
+    }
+}
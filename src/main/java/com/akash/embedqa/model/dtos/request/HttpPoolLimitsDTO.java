@@ -0,0 +1,27 @@
+package com.akash.embedqa.model.dtos.request;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * New connection limits for the execution pools. A limit left out keeps its current
+ * value; the per-route limit may not exceed the total.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HttpPoolLimitsDTO {
+
+    @Min(value = 1, message = "Max total connections must be at least 1")
+    private Integer maxTotal;
+
+    @Min(value = 1, message = "Max connections per route must be at least 1")
+    private Integer maxPerRoute;
+}
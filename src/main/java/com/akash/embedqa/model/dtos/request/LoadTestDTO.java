@@ -0,0 +1,49 @@
+package com.akash.embedqa.model.dtos.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Load test options. Exactly one of {@code request}/{@code requestId} and exactly one
+ * of {@code targetRps}/{@code concurrency} must be set.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoadTestDTO {
+
+    // Ad-hoc request to drive
+    @Valid
+    private ExecuteRequestDTO request;
+
+    // Or: ID of a saved request
+    private Long requestId;
+
+    // Saved requests only: overrides the request's environment
+    private Long environmentId;
+
+    // Open model: new requests start at this rate regardless of how fast responses come back
+    @Min(value = 1, message = "Target RPS must be at least 1")
+    @Max(value = 10000, message = "Target RPS must be at most 10000")
+    private Integer targetRps;
+
+    // Closed model: this many workers, each sending its next request once the previous completes
+    @Min(value = 1, message = "Concurrency must be at least 1")
+    @Max(value = 1000, message = "Concurrency must be at most 1000")
+    private Integer concurrency;
+
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be at least 1 second")
+    @Max(value = 3600, message = "Duration must be at most 3600 seconds")
+    private Integer durationSeconds;
+}
@@ -26,6 +26,9 @@ public class ApiResponseDTO {
     private String body;
     private String contentType;
     private Long bodySize;  // Size in bytes
+    private Boolean bodyTruncated;  // body holds only the first capture-limit bytes
+    private String bodySha256;  // Hex SHA-256 of the full body
+    private String bodyId;  // Full body download id, when it was spilled to disk
 
     // Response headers
     private List<HeaderDTO> headers;
@@ -46,6 +49,7 @@ public class ApiResponseDTO {
     private LocalDateTime timestamp;
     private String protocol;  // HTTP/1.1, HTTP/2, etc.
     private String remoteAddress;
+    private Boolean connectionReused;  // false if this exchange had to open its connection
 
     // Error info (if request failed)
     private Boolean success;
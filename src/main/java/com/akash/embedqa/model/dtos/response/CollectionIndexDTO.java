@@ -0,0 +1,23 @@
+package com.akash.embedqa.model.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One collection in the sidebar index; members are loaded separately, page by page.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionIndexDTO {
+
+    private Long id;
+    private String name;
+    private Integer requestCount;
+}
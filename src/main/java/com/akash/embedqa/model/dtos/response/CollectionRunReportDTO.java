@@ -0,0 +1,49 @@
+package com.akash.embedqa.model.dtos.response;
+
+import com.akash.embedqa.enums.RunMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Aggregated report for a collection run.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionRunReportDTO {
+
+    private Long collectionId;
+    private String collectionName;
+    private RunMode mode;
+    private Integer parallelism;
+
+    private LocalDateTime startedAt;
+    // Wall-clock time of the whole run
+    private Long totalTimeMs;
+
+    private Integer totalRequests;
+    private Integer passed;
+    private Integer failed;
+    private Integer skipped;
+
+    // Across executed requests only
+    private Long minResponseTimeMs;
+    private Long maxResponseTimeMs;
+    private Double avgResponseTimeMs;
+
+    // Executed requests that opened a connection vs. reused a pooled or HTTP/2 one
+    private Integer connectionsOpened;
+    private Integer connectionsReused;
+
+    // In collection order
+    private List<CollectionRunResultDTO> results;
+}
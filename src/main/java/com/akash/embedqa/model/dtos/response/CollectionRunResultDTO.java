@@ -0,0 +1,37 @@
+package com.akash.embedqa.model.dtos.response;
+
+import com.akash.embedqa.enums.RunOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one request within a collection run.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CollectionRunResultDTO {
+
+    private Long requestId;
+    private String name;
+    private String method;
+    private String url;
+
+    private RunOutcome outcome;
+    private Integer statusCode;
+    private String errorMessage;
+
+    // Milliseconds after the run started that this request was sent
+    private Long startOffsetMs;
+    private Long responseTimeMs;
+
+    // HTTP/1.1 or HTTP/2; null if no response was received
+    private String protocol;
+    private Boolean connectionReused;
+}
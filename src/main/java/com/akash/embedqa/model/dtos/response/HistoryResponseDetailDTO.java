@@ -21,5 +21,10 @@ public class HistoryResponseDetailDTO {
     private Map<String, String> headers;
     private String body;
     private Long responseTime;
+    private Long dnsLookupTime;
+    private Long connectionTime;
+    private Long tlsHandshakeTime;
+    private Long firstByteTime;
+    private Long downloadTime;
     private Long responseSize;
 }
@@ -9,5 +9,8 @@ public record HistoryStatsDTO(
         Long successCount,
         Long errorCount,
         Double avgResponseTime,
+        Double p50ResponseTime,
+        Double p95ResponseTime,
+        Double p99ResponseTime,
         java.util.Map<String, Long> methodBreakdown
 ) {}
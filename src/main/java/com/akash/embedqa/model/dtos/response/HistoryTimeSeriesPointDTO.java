@@ -0,0 +1,22 @@
+package com.akash.embedqa.model.dtos.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * One bucket of the history time series. Percentiles are estimated from the
+ * rollup latency sketch; they and the other timings are null for empty buckets.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public record HistoryTimeSeriesPointDTO(
+        LocalDateTime bucketStart,
+        Long requestCount,
+        Long errorCount,
+        Double avgResponseTime,
+        Long minResponseTime,
+        Long maxResponseTime,
+        Double p50ResponseTime,
+        Double p95ResponseTime,
+        Double p99ResponseTime
+) {}
@@ -0,0 +1,48 @@
+package com.akash.embedqa.model.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Current state of one execution connection pool.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HttpPoolStatsDTO {
+
+    // e.g. classic-verified, async-trust-all
+    private String pool;
+
+    private Integer maxTotal;
+    private Integer maxPerRoute;
+
+    // Across all routes
+    private Integer leased;
+    private Integer available;
+    private Integer pending;
+
+    // Routes the pool currently holds connections or waiters for
+    private List<RouteStats> routes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RouteStats {
+        // e.g. https://api.example.com:443
+        private String route;
+        private Integer max;
+        private Integer leased;
+        private Integer available;
+        private Integer pending;
+    }
+}
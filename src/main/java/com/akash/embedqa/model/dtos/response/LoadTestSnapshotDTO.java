@@ -0,0 +1,51 @@
+package com.akash.embedqa.model.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Load test statistics for one reporting interval, or for the whole run
+ * when {@code summary} is true.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoadTestSnapshotDTO {
+
+    private Boolean summary;
+
+    // Seconds since the test started, at the end of this interval
+    private Long elapsedSeconds;
+
+    // Completed requests
+    private Long requests;
+    private Double throughput;  // completed requests per second
+
+    // Connection failures plus 4xx/5xx responses
+    private Long errors;
+
+    // Open model only: arrivals not sent because too many requests were already in flight
+    private Long dropped;
+
+    // e.g. "2xx" -> 950, "5xx" -> 3, "failed" -> 2
+    private Map<String, Long> statusCounts;
+
+    // Latency percentiles in milliseconds. Open model latency is measured from the
+    // scheduled start, so time spent queued behind slow responses is included.
+    private Double meanMs;
+    private Double p50Ms;
+    private Double p90Ms;
+    private Double p99Ms;
+    private Double p999Ms;
+    private Double maxMs;
+
+    private Integer inFlight;
+}
@@ -20,4 +20,8 @@ public class PageInfoDTO {
     private Integer totalPages;
     private Boolean first;
     private Boolean last;
+
+    // Cursor mode only; totalElements and totalPages are not computed there
+    private Boolean hasNext;
+    private String nextCursor;
 }
@@ -43,6 +43,11 @@ public class Environment extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private List<EnvironmentVariableDTO> variablesJson;
 
+    // Bumped on every update; cached variable maps are tagged with it
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Helper
     public void addApiRequest(ApiRequest request) {
         apiRequests.add(request);
@@ -0,0 +1,56 @@
+package com.akash.embedqa.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * One distinct request body, response body or response header block of history
+ * entries, stored out of row and shared by hash (see V8 and V9 migrations).
+ * Rows are written through {@link com.akash.embedqa.repository.HistoryBodyRepositoryCustom}.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Entity
+@Table(name = "history_bodies")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryBody {
+
+    public static final String IDENTITY = "identity";
+    public static final String GZIP = "gzip";
+
+    // Assigned by the column default on insert
+    @Id
+    private Long id;
+
+    // SHA-256 of the uncompressed UTF-8 body; unique
+    @Column(nullable = false)
+    private byte[] sha256;
+
+    @Column(nullable = false, length = 10)
+    private String encoding;
+
+    // Uncompressed size in bytes
+    @Column(nullable = false)
+    private Long size;
+
+    @ToString.Exclude
+    @Column(nullable = false)
+    private byte[] content;
+
+    // History entries pointing at this row
+    @Column(nullable = false)
+    private Long refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
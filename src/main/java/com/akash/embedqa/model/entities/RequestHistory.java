@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Builder
 public class RequestHistory extends BaseEntity {
 
+    // Pooled ids (see V4 migration) so the history writer's inserts batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_history_seq")
+    @SequenceGenerator(name = "request_history_seq", sequenceName = "request_history_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 2048)
@@ -31,9 +33,17 @@ public class RequestHistory extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String  requestHeaders;
 
-    @Column(columnDefinition = "TEXT")
+    // Bodies and response headers are carried until saved; the stored copies live in
+    // history_bodies (see HistoryBodyStore)
+    @Transient
     private String requestBody;
 
+    private Long requestBodyId;
+
+    private Long requestBodySize;
+
+    private byte[] requestBodySha256;
+
     private String bodyType;
 
     private String authType;
@@ -46,18 +56,37 @@ public class RequestHistory extends BaseEntity {
 
     private String statusText;
 
-    @Column(columnDefinition = "TEXT")
+    @Transient
     private String responseHeaders;
 
-    @Column(columnDefinition = "TEXT")
+    private Long responseHeadersId;
+
+    @Transient
     private String responseBody;
 
+    private Long responseBodyId;
+
+    private Long responseBodySize;
+
+    private byte[] responseBodySha256;
+
     @Column(columnDefinition = "TEXT")
     private String queryParams;
 
     @Column(nullable = false)
     private Long responseTime; // in milliseconds
 
+    // Phases of responseTime, in milliseconds; null if not reached (see PhaseTimings)
+    private Long dnsLookupTime;
+
+    private Long connectionTime;
+
+    private Long tlsHandshakeTime;
+
+    private Long firstByteTime;
+
+    private Long downloadTime;
+
     private Long responseSize; // in bytes
 
     @Column(nullable = false)
@@ -2,12 +2,54 @@ package com.akash.embedqa.repository;
 
 import com.akash.embedqa.model.entities.ApiCollection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Author: akash
  * Date: 29/10/25
  */
 @Repository
 public interface ApiCollectionRepository extends JpaRepository<ApiCollection, Long> {
+
+    /**
+     * Every collection with the number of requests in it, in one grouped query.
+     */
+    @Query("SELECT c.id AS id, c.name AS name, c.description AS description, COUNT(r) AS requestCount " +
+            "FROM ApiCollection c LEFT JOIN c.requests r " +
+            "GROUP BY c.id, c.name, c.description ORDER BY c.id")
+    List<CollectionSummaryView> findAllSummaries();
+
+    @Query("SELECT c.id AS id, c.name AS name, c.description AS description, COUNT(r) AS requestCount " +
+            "FROM ApiCollection c LEFT JOIN c.requests r WHERE c.id = :id " +
+            "GROUP BY c.id, c.name, c.description")
+    Optional<CollectionSummaryView> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Id, name and request count of every collection, for the sidebar index.
+     */
+    @Query("SELECT c.id AS id, c.name AS name, COUNT(r) AS requestCount " +
+            "FROM ApiCollection c LEFT JOIN c.requests r " +
+            "GROUP BY c.id, c.name ORDER BY c.id")
+    List<CollectionIndexView> findIndex();
+
+    @Query("SELECT c.name FROM ApiCollection c WHERE c.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    interface CollectionIndexView {
+        Long getId();
+        String getName();
+        long getRequestCount();
+    }
+
+    interface CollectionSummaryView {
+        Long getId();
+        String getName();
+        String getDescription();
+        long getRequestCount();
+    }
 }
@@ -1,13 +1,74 @@
 package com.akash.embedqa.repository;
 
+import com.akash.embedqa.enums.HttpMethod;
 import com.akash.embedqa.model.entities.ApiRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Author: akash
  * Date: 29/10/25
  */
 @Repository
 public interface ApiRequestRepository extends JpaRepository<ApiRequest, Long> {
+
+    /**
+     * All requests of a collection with their headers, in creation order.
+     * Query parameters are a second bag and cannot be fetched in the same query;
+     * load them with {@link #fetchQueryParams(List)}.
+     */
+    @Query("SELECT DISTINCT r FROM ApiRequest r LEFT JOIN FETCH r.headers " +
+            "WHERE r.collection.id = :collectionId ORDER BY r.id")
+    List<ApiRequest> findAllByCollectionIdWithHeaders(@Param("collectionId") Long collectionId);
+
+    /**
+     * Initializes query parameters on requests already in the persistence context.
+     */
+    @Query("SELECT DISTINCT r FROM ApiRequest r LEFT JOIN FETCH r.queryParams WHERE r IN :requests")
+    List<ApiRequest> fetchQueryParams(@Param("requests") List<ApiRequest> requests);
+
+    /**
+     * Summary columns of every request that belongs to a collection, without loading
+     * the entities or their collections.
+     */
+    @Query("SELECT r.id AS id, r.name AS name, r.url AS url, r.method AS method, " +
+            "r.description AS description, r.collection.id AS collectionId, " +
+            "r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+            "FROM ApiRequest r WHERE r.collection IS NOT NULL ORDER BY r.id")
+    List<RequestSummaryView> findAllCollectionMemberSummaries();
+
+    @Query("SELECT r.id AS id, r.name AS name, r.url AS url, r.method AS method, " +
+            "r.description AS description, r.collection.id AS collectionId, " +
+            "r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+            "FROM ApiRequest r WHERE r.collection.id = :collectionId ORDER BY r.id")
+    List<RequestSummaryView> findSummariesByCollectionId(@Param("collectionId") Long collectionId);
+
+    /**
+     * Keyset page of a collection's requests: those with an id above {@code afterId},
+     * up to the page size of {@code limit}.
+     */
+    @Query("SELECT r.id AS id, r.name AS name, r.url AS url, r.method AS method, " +
+            "r.description AS description, r.collection.id AS collectionId, " +
+            "r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+            "FROM ApiRequest r WHERE r.collection.id = :collectionId AND r.id > :afterId ORDER BY r.id")
+    List<RequestSummaryView> findSummariesByCollectionIdAfter(@Param("collectionId") Long collectionId,
+                                                              @Param("afterId") Long afterId,
+                                                              Pageable limit);
+
+    interface RequestSummaryView {
+        Long getId();
+        String getName();
+        String getUrl();
+        HttpMethod getMethod();
+        String getDescription();
+        Long getCollectionId();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
 }
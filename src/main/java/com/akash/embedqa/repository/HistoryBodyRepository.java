@@ -0,0 +1,26 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.model.entities.HistoryBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Repository
+public interface HistoryBodyRepository extends JpaRepository<HistoryBody, Long>, HistoryBodyRepositoryCustom {
+
+    /**
+     * Deletes bodies no request_history row refers to any more.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM history_bodies WHERE ref_count <= 0", nativeQuery = true)
+    int deleteOrphans();
+
+    @Modifying
+    @Query(value = "TRUNCATE history_bodies", nativeQuery = true)
+    void deleteAllBodies();
+}
@@ -0,0 +1,34 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.model.entities.HistoryBody;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reference-counted writes to history_bodies. Bodies are keyed by the hex SHA-256
+ * of their uncompressed content.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface HistoryBodyRepositoryCustom {
+
+    /**
+     * Adds references to bodies that are already stored. Returns the ids of the hashes
+     * that were found; the others have to go through {@link #insertOrAddReferences}.
+     */
+    Map<String, Long> addReferences(Map<String, Long> referencesByHash);
+
+    /**
+     * Inserts new bodies with {@link HistoryBody#getRefCount()} references, or adds
+     * those references if a concurrent writer stored the same hash first. Returns the
+     * id per hash.
+     */
+    Map<String, Long> insertOrAddReferences(Collection<HistoryBody> bodies);
+
+    /**
+     * Drops one reference per occurrence of each id.
+     */
+    void release(Collection<Long> bodyIds);
+}
@@ -0,0 +1,103 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.model.entities.HistoryBody;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC side of {@link HistoryBodyRepository}. Statements run on the connection of the
+ * surrounding JPA transaction, in hash order so concurrent writers lock rows in the
+ * same order.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@RequiredArgsConstructor
+public class HistoryBodyRepositoryImpl implements HistoryBodyRepositoryCustom {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final String ADD_REFERENCES =
+            "UPDATE history_bodies SET ref_count = ref_count + :references WHERE id = :id";
+
+    private static final String INSERT_OR_ADD_REFERENCES = """
+            INSERT INTO history_bodies (sha256, encoding, size, content, ref_count)
+            VALUES (:sha256, :encoding, :size, :content, :refCount)
+            ON CONFLICT (sha256) DO UPDATE SET ref_count = history_bodies.ref_count + EXCLUDED.ref_count
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, Long> addReferences(Map<String, Long> referencesByHash) {
+        if (referencesByHash.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> found = findIds(referencesByHash.keySet());
+
+        List<String> hashes = new ArrayList<>(new TreeSet<>(found.keySet()));
+        SqlParameterSource[] batch = hashes.stream()
+                .map(hash -> new MapSqlParameterSource()
+                        .addValue("id", found.get(hash))
+                        .addValue("references", referencesByHash.get(hash)))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate(ADD_REFERENCES, batch);
+
+        // A row swept between the lookup and the update counts as not stored
+        Map<String, Long> referenced = new HashMap<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            if (updated[i] != 0) {
+                referenced.put(hashes.get(i), found.get(hashes.get(i)));
+            }
+        }
+        return referenced;
+    }
+
+    @Override
+    public Map<String, Long> insertOrAddReferences(Collection<HistoryBody> bodies) {
+        if (bodies.isEmpty()) {
+            return Map.of();
+        }
+        SqlParameterSource[] batch = bodies.stream()
+                .sorted(Comparator.comparing(body -> HEX.formatHex(body.getSha256())))
+                .map(body -> new MapSqlParameterSource()
+                        .addValue("sha256", body.getSha256())
+                        .addValue("encoding", body.getEncoding())
+                        .addValue("size", body.getSize())
+                        .addValue("content", body.getContent())
+                        .addValue("refCount", body.getRefCount()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_OR_ADD_REFERENCES, batch);
+
+        return findIds(bodies.stream().map(body -> HEX.formatHex(body.getSha256())).toList());
+    }
+
+    @Override
+    public void release(Collection<Long> bodyIds) {
+        SqlParameterSource[] batch = bodyIds.stream()
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()))
+                .entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("id", entry.getKey())
+                        .addValue("references", -entry.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(ADD_REFERENCES, batch);
+    }
+
+    private Map<String, Long> findIds(Collection<String> hashes) {
+        List<byte[]> digests = hashes.stream().map(HEX::parseHex).toList();
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, sha256 FROM history_bodies WHERE sha256 IN (:hashes)",
+                new MapSqlParameterSource("hashes", digests),
+                rs -> {
+                    ids.put(HEX.formatHex(rs.getBytes(2)), rs.getLong(1));
+                });
+        return ids;
+    }
+}
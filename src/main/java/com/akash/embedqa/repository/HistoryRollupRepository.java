@@ -0,0 +1,317 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.enums.RollupInterval;
+import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.utils.LatencySketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-minute and per-hour rollups of request_history (see V5 migration).
+ *
+ * Rows are keyed by bucket, method, host and status class and carry count, sum, min,
+ * max and a {@link LatencySketch}. Writes are upserts that merge into the existing
+ * row, so they must run in the same transaction as the history insert or delete.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Repository
+@RequiredArgsConstructor
+public class HistoryRollupRepository {
+
+    // Same pattern as rollup_host() in the V5 migration
+    private static final Pattern HOST_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://([^/:?#]+)");
+
+    private static final int MAX_HOST_LENGTH = 255;
+
+    private static final String UPSERT = """
+            INSERT INTO %s (bucket_start, method, host, status_class,
+                            request_count, sum_ms, min_ms, max_ms, latency_sketch)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (bucket_start, method, host, status_class) DO UPDATE SET
+                request_count = t.request_count + EXCLUDED.request_count,
+                sum_ms = t.sum_ms + EXCLUDED.sum_ms,
+                min_ms = LEAST(t.min_ms, EXCLUDED.min_ms),
+                max_ms = GREATEST(t.max_ms, EXCLUDED.max_ms),
+                latency_sketch = rollup_merge_sketch(t.latency_sketch, EXCLUDED.latency_sketch)
+            """;
+
+    private static final String SUBTRACT = """
+            UPDATE %s SET
+                request_count = request_count - 1,
+                sum_ms = sum_ms - :responseTime,
+                latency_sketch = rollup_merge_sketch(latency_sketch, rollup_sketch_of(:slot, CAST(-1 AS BIGINT)))
+            WHERE bucket_start = :bucketStart AND method = :method AND host = :host
+              AND status_class = :statusClass
+            """;
+
+    private static final String DELETE_EMPTY = """
+            DELETE FROM %s
+            WHERE bucket_start = :bucketStart AND method = :method AND host = :host
+              AND status_class = :statusClass AND request_count <= 0
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the entries to both rollup tables. Entries are pre-aggregated per key, so a
+     * batch costs one upsert per distinct bucket/method/host/status class.
+     */
+    public void record(List<RequestHistory> histories) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        for (RollupInterval interval : RollupInterval.values()) {
+            upsert(interval, aggregate(histories, interval));
+        }
+    }
+
+    /**
+     * Takes a deleted entry back out of both rollup tables: count, sum and its sketch
+     * slot. Min and max cannot be recomputed from a rollup, so they stay as bounds of
+     * what the bucket once held. A row left empty is removed.
+     */
+    public void remove(RequestHistory history) {
+        for (RollupInterval interval : RollupInterval.values()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("bucketStart", history.getExecutedAt().truncatedTo(interval.getUnit()))
+                    .addValue("method", history.getMethod().name())
+                    .addValue("host", hostOf(history.getUrl()))
+                    .addValue("statusClass", history.getStatusCode() / 100)
+                    .addValue("responseTime", history.getResponseTime())
+                    .addValue("slot", LatencySketch.bucketOf(history.getResponseTime()));
+            jdbcTemplate.update(SUBTRACT.formatted(table(interval)), params);
+            jdbcTemplate.update(DELETE_EMPTY.formatted(table(interval)), params);
+        }
+    }
+
+    /**
+     * Totals per method and status class over [from, to). Null bounds and filters are open.
+     */
+    public List<RollupGroup> summarize(RollupInterval interval, LocalDateTime from, LocalDateTime to,
+                                       String method, Integer minStatusClass, Integer maxStatusClass) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = """
+                SELECT method, status_class, sum(request_count), sum(sum_ms), min(min_ms), max(max_ms),
+                       rollup_sketch_sum(latency_sketch)
+                FROM %s""".formatted(table(interval))
+                + where(from, to, method, null, minStatusClass, maxStatusClass, params)
+                + " GROUP BY method, status_class";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new RollupGroup(
+                rs.getString(1),
+                rs.getInt(2),
+                rs.getLong(3),
+                rs.getLong(4),
+                rs.getLong(5),
+                rs.getLong(6),
+                toSketch(rs.getArray(7))
+        ));
+    }
+
+    /**
+     * One row per non-empty bucket in [from, to), oldest first.
+     */
+    public List<RollupBucket> timeSeries(RollupInterval interval, LocalDateTime from, LocalDateTime to,
+                                         String method, String host) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = """
+                SELECT bucket_start, sum(request_count),
+                       coalesce(sum(request_count) FILTER (WHERE status_class >= 4), 0),
+                       sum(sum_ms), min(min_ms), max(max_ms), rollup_sketch_sum(latency_sketch)
+                FROM %s""".formatted(table(interval))
+                + where(from, to, method, host, null, null, params)
+                + " GROUP BY bucket_start ORDER BY bucket_start";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new RollupBucket(
+                rs.getTimestamp(1).toLocalDateTime(),
+                rs.getLong(2),
+                rs.getLong(3),
+                rs.getLong(4),
+                rs.getLong(5),
+                rs.getLong(6),
+                toSketch(rs.getArray(7))
+        ));
+    }
+
+    /**
+     * Drops buckets that end at or before the cutoff. The bucket containing the cutoff
+     * is kept whole, so it may still count a few deleted executions.
+     */
+    public void deleteBefore(LocalDateTime cutoff) {
+        for (RollupInterval interval : RollupInterval.values()) {
+            LocalDateTime firstKept = cutoff.truncatedTo(interval.getUnit());
+            jdbcTemplate.update("DELETE FROM " + table(interval) + " WHERE bucket_start < :firstKept",
+                    new MapSqlParameterSource("firstKept", firstKept));
+        }
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.getJdbcTemplate().execute(
+                "TRUNCATE request_history_rollup_minute, request_history_rollup_hour");
+    }
+
+    public static String hostOf(String url) {
+        if (url == null) {
+            return "unknown";
+        }
+        Matcher matcher = HOST_PATTERN.matcher(url);
+        if (!matcher.find()) {
+            return "unknown";
+        }
+        String host = matcher.group(1).toLowerCase(Locale.ROOT);
+        return host.length() > MAX_HOST_LENGTH ? host.substring(0, MAX_HOST_LENGTH) : host;
+    }
+
+    private Map<RollupKey, RollupDelta> aggregate(List<RequestHistory> histories, RollupInterval interval) {
+        // Sorted so concurrent writers lock rows in the same order
+        Map<RollupKey, RollupDelta> deltas = new TreeMap<>();
+        for (RequestHistory history : histories) {
+            RollupKey key = new RollupKey(
+                    history.getExecutedAt().truncatedTo(interval.getUnit()),
+                    history.getMethod().name(),
+                    hostOf(history.getUrl()),
+                    history.getStatusCode() / 100);
+            deltas.computeIfAbsent(key, k -> new RollupDelta()).add(history.getResponseTime());
+        }
+        return deltas;
+    }
+
+    private void upsert(RollupInterval interval, Map<RollupKey, RollupDelta> deltas) {
+        List<Map.Entry<RollupKey, RollupDelta>> rows = new ArrayList<>(deltas.entrySet());
+
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                UPSERT.formatted(table(interval) + " AS t"),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RollupKey key = rows.get(i).getKey();
+                        RollupDelta delta = rows.get(i).getValue();
+                        ps.setTimestamp(1, Timestamp.valueOf(key.bucketStart()));
+                        ps.setString(2, key.method());
+                        ps.setString(3, key.host());
+                        ps.setShort(4, (short) key.statusClass());
+                        ps.setLong(5, delta.count);
+                        ps.setLong(6, delta.sumMs);
+                        ps.setLong(7, delta.minMs);
+                        ps.setLong(8, delta.maxMs);
+                        ps.setArray(9, ps.getConnection().createArrayOf("bigint",
+                                Arrays.stream(delta.sketch).boxed().toArray(Long[]::new)));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    private static String where(LocalDateTime from, LocalDateTime to, String method, String host,
+                                Integer minStatusClass, Integer maxStatusClass, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        if (from != null) {
+            and(where, "bucket_start >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            and(where, "bucket_start < :to");
+            params.addValue("to", to);
+        }
+        if (method != null) {
+            and(where, "method = :method");
+            params.addValue("method", method);
+        }
+        if (host != null) {
+            and(where, "host = :host");
+            params.addValue("host", host.toLowerCase(Locale.ROOT));
+        }
+        if (minStatusClass != null) {
+            and(where, "status_class >= :minStatusClass");
+            params.addValue("minStatusClass", minStatusClass);
+        }
+        if (maxStatusClass != null) {
+            and(where, "status_class <= :maxStatusClass");
+            params.addValue("maxStatusClass", maxStatusClass);
+        }
+        return where.toString();
+    }
+
+    private static void and(StringBuilder where, String predicate) {
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(predicate);
+    }
+
+    private static String table(RollupInterval interval) {
+        return switch (interval) {
+            case MINUTE -> "request_history_rollup_minute";
+            case HOUR -> "request_history_rollup_hour";
+        };
+    }
+
+    private static long[] toSketch(Array array) throws SQLException {
+        long[] sketch = LatencySketch.empty();
+        if (array == null) {
+            return sketch;
+        }
+        Object[] values = (Object[]) array.getArray();
+        for (int i = 0; i < values.length && i < sketch.length; i++) {
+            sketch[i] = values[i] != null ? ((Number) values[i]).longValue() : 0L;
+        }
+        return sketch;
+    }
+
+    /**
+     * Totals for one method and status class.
+     */
+    public record RollupGroup(String method, int statusClass, long requestCount, long sumMs,
+                              long minMs, long maxMs, long[] sketch) {}
+
+    /**
+     * Totals for one time bucket.
+     */
+    public record RollupBucket(LocalDateTime bucketStart, long requestCount, long errorCount, long sumMs,
+                               long minMs, long maxMs, long[] sketch) {}
+
+    private record RollupKey(LocalDateTime bucketStart, String method, String host, int statusClass)
+            implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::bucketStart)
+                .thenComparing(RollupKey::method)
+                .thenComparing(RollupKey::host)
+                .thenComparingInt(RollupKey::statusClass);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class RollupDelta {
+        private long count;
+        private long sumMs;
+        private long minMs = Long.MAX_VALUE;
+        private long maxMs = Long.MIN_VALUE;
+        private final long[] sketch = LatencySketch.empty();
+
+        void add(long responseTimeMs) {
+            count++;
+            sumMs += responseTimeMs;
+            minMs = Math.min(minMs, responseTimeMs);
+            maxMs = Math.max(maxMs, responseTimeMs);
+            LatencySketch.record(sketch, responseTimeMs);
+        }
+    }
+}
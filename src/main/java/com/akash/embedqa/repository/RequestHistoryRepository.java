@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -15,13 +17,46 @@ import java.time.LocalDateTime;
  * Date: 26/12/25
  */
 @Repository
-public interface RequestHistoryRepository extends JpaRepository<RequestHistory, Long>, JpaSpecificationExecutor<RequestHistory> {
+public interface RequestHistoryRepository extends JpaRepository<RequestHistory, Long>, JpaSpecificationExecutor<RequestHistory>,
+        RequestHistoryRepositoryCustom {
 
+    // Releases the deleted rows' body references in the same statement
+    @Transactional
     @Modifying
-    @Query("DELETE FROM RequestHistory h WHERE h.executedAt < :date")
+    @Query(value = """
+            WITH gone AS (
+                DELETE FROM request_history WHERE executed_at < :date
+                RETURNING request_body_id, response_body_id, response_headers_id
+            ), refs AS (
+                SELECT id, count(*) AS n
+                FROM (SELECT request_body_id AS id FROM gone
+                      UNION ALL SELECT response_body_id FROM gone
+                      UNION ALL SELECT response_headers_id FROM gone) r
+                WHERE id IS NOT NULL
+                GROUP BY id
+            )
+            UPDATE history_bodies b SET ref_count = b.ref_count - refs.n
+            FROM refs
+            WHERE b.id = refs.id
+            """, nativeQuery = true)
     void deleteOlderThan(@Param("date") LocalDateTime date);
 
+    // Truncates every partition; they stay attached for new entries
     @Modifying
-    @Query("DELETE FROM RequestHistory h")
+    @Query(value = "TRUNCATE request_history", nativeQuery = true)
     void deleteAllHistory();
+
+    /**
+     * Creates the missing daily partitions for [from, to]. Returns how many were created.
+     */
+    @Transactional
+    @Query(value = "SELECT request_history_ensure_partitions(:from, :to)", nativeQuery = true)
+    int ensurePartitions(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Detaches and drops the daily partitions for days before {@code day}. Returns how many were dropped.
+     */
+    @Transactional
+    @Query(value = "SELECT request_history_drop_partitions_before(:day)", nativeQuery = true)
+    int dropPartitionsBefore(@Param("day") LocalDate day);
 }
@@ -0,0 +1,68 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
+import com.akash.embedqa.utils.HistoryCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written queries on request_history that Spring Data cannot derive.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface RequestHistoryRepositoryCustom {
+
+    /**
+     * Counts, average and latency percentiles over matching rows, computed in one
+     * aggregate query. Averages and percentiles are null when nothing matches.
+     */
+    StatsAggregate aggregateStats(HistoryFilterDTO filter);
+
+    /**
+     * Matching row count per HTTP method.
+     */
+    Map<String, Long> countByMethod(HistoryFilterDTO filter);
+
+    /**
+     * One page of summaries, newest first. Only the listing columns are read (no body
+     * or header TEXT), with request and collection names joined in the same query.
+     * The count query is skipped when the page itself shows the total.
+     */
+    Page<HistorySummary> findSummaries(HistoryFilterDTO filter, Pageable pageable);
+
+    /**
+     * Up to {@code limit} summaries after {@code after} (null for the newest), newest
+     * first. Seeks on idx_request_history_executed_id, so the cost does not depend on
+     * how deep the page is, and no count query is run.
+     */
+    List<HistorySummary> findSummariesAfter(HistoryFilterDTO filter, HistoryCursor after, int limit);
+
+    record StatsAggregate(
+            long totalRequests,
+            long successCount,
+            long errorCount,
+            Double avgResponseTime,
+            Double p50ResponseTime,
+            Double p95ResponseTime,
+            Double p99ResponseTime
+    ) {}
+
+    record HistorySummary(
+            Long id,
+            String url,
+            HttpMethod method,
+            Integer statusCode,
+            String statusText,
+            Long responseTime,
+            Long responseSize,
+            LocalDateTime executedAt,
+            String requestName,
+            String collectionName
+    ) {}
+}
@@ -0,0 +1,197 @@
+package com.akash.embedqa.repository;
+
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
+import com.akash.embedqa.utils.HistoryCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Native listing and aggregate queries for {@link RequestHistoryRepository}.
+ *
+ * The WHERE clause only contains the filters that are set, so a method/status filter
+ * can use idx_request_history_method_status and a date range idx_request_history_executed_at
+ * instead of a generic {@code (:p IS NULL OR ...)} plan that scans everything.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public class RequestHistoryRepositoryImpl implements RequestHistoryRepositoryCustom {
+
+    // Listing columns only; the TEXT body/header columns are never read for summaries
+    private static final String SUMMARY_SELECT = """
+            SELECT h.id, h.url, h.method, h.status_code, h.status_text, h.response_time,
+                   h.response_size, h.executed_at, r.name, coalesce(rc.name, c.name)
+            FROM request_history h
+            LEFT JOIN api_requests r ON r.id = h.api_request_id
+            LEFT JOIN api_collections rc ON rc.id = r.collection_id
+            LEFT JOIN api_collections c ON c.id = h.collection_id""";
+
+    private static final String SUMMARY_ORDER = " ORDER BY h.executed_at DESC, h.id DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public StatsAggregate aggregateStats(HistoryFilterDTO filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = """
+                SELECT count(*),
+                       count(*) FILTER (WHERE status_code >= 200 AND status_code < 400),
+                       count(*) FILTER (WHERE status_code >= 400),
+                       avg(response_time),
+                       percentile_cont(0.50) WITHIN GROUP (ORDER BY response_time),
+                       percentile_cont(0.95) WITHIN GROUP (ORDER BY response_time),
+                       percentile_cont(0.99) WITHIN GROUP (ORDER BY response_time)
+                FROM request_history h
+                """ + where(filter, params);
+
+        Object[] row = (Object[]) bind(entityManager.createNativeQuery(sql), params).getSingleResult();
+        return new StatsAggregate(
+                toLong(row[0]),
+                toLong(row[1]),
+                toLong(row[2]),
+                toDouble(row[3]),
+                toDouble(row[4]),
+                toDouble(row[5]),
+                toDouble(row[6])
+        );
+    }
+
+    @Override
+    public Map<String, Long> countByMethod(HistoryFilterDTO filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT h.method, count(*) FROM request_history h" + where(filter, params) + " GROUP BY h.method";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = bind(entityManager.createNativeQuery(sql), params).getResultList();
+
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            breakdown.put((String) row[0], toLong(row[1]));
+        }
+        return breakdown;
+    }
+
+    @Override
+    public Page<HistorySummary> findSummaries(HistoryFilterDTO filter, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = where(filter, params);
+
+        Query query = bind(entityManager.createNativeQuery(
+                SUMMARY_SELECT + where + SUMMARY_ORDER + " LIMIT :limit OFFSET :offset"), params)
+                .setParameter("limit", pageable.getPageSize())
+                .setParameter("offset", pageable.getOffset());
+        List<HistorySummary> content = toSummaries(query);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> toLong(
+                bind(entityManager.createNativeQuery("SELECT count(*) FROM request_history h" + where), params)
+                        .getSingleResult()));
+    }
+
+    @Override
+    public List<HistorySummary> findSummariesAfter(HistoryFilterDTO filter, HistoryCursor after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder(where(filter, params));
+        if (after != null) {
+            // Row comparison so the seek is a single index range condition
+            and(where, "(h.executed_at, h.id) < (:afterExecutedAt, :afterId)");
+            params.put("afterExecutedAt", after.executedAt());
+            params.put("afterId", after.id());
+        }
+        params.put("limit", limit);
+
+        return toSummaries(bind(entityManager.createNativeQuery(
+                SUMMARY_SELECT + where + SUMMARY_ORDER + " LIMIT :limit"), params));
+    }
+
+    /**
+     * Filter predicates on request_history aliased as {@code h}.
+     */
+    private String where(HistoryFilterDTO filter, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder();
+
+        if (filter.method() != null) {
+            and(where, "h.method = :method");
+            params.put("method", filter.method().name());
+        }
+
+        Integer statusCode = filter.statusCode();
+        if (statusCode != null) {
+            if (statusCode == 200) {
+                and(where, "h.status_code >= 200 AND h.status_code < 400");
+            } else if (statusCode >= 400) {
+                and(where, "h.status_code >= 400");
+            } else {
+                and(where, "h.status_code = :statusCode");
+                params.put("statusCode", statusCode);
+            }
+        }
+
+        if (filter.search() != null && !filter.search().isBlank()) {
+            and(where, "lower(h.url) LIKE :search");
+            params.put("search", "%" + filter.search().toLowerCase() + "%");
+        }
+
+        if (filter.fromDate() != null) {
+            and(where, "h.executed_at >= :fromDate");
+            params.put("fromDate", filter.fromDate());
+        }
+        // Exclusive, like the rollup path, so listing and stats agree on the same range
+        if (filter.toDate() != null) {
+            and(where, "h.executed_at < :toDate");
+            params.put("toDate", filter.toDate());
+        }
+
+        return where.toString();
+    }
+
+    private static void and(StringBuilder where, String predicate) {
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(predicate);
+    }
+
+    private static List<HistorySummary> toSummaries(Query query) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new HistorySummary(
+                        toLong(row[0]),
+                        (String) row[1],
+                        HttpMethod.valueOf((String) row[2]),
+                        ((Number) row[3]).intValue(),
+                        (String) row[4],
+                        toLong(row[5]),
+                        row[6] != null ? toLong(row[6]) : null,
+                        toLocalDateTime(row[7]),
+                        (String) row[8],
+                        (String) row[9]))
+                .toList();
+    }
+
+    private static Query bind(Query query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
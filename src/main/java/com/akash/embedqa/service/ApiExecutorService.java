@@ -1,7 +1,12 @@
 package com.akash.embedqa.service;
 
 import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
+import com.akash.embedqa.model.dtos.request.LoadTestDTO;
 import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
+import com.akash.embedqa.model.dtos.response.LoadTestSnapshotDTO;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Author: akash
@@ -11,4 +16,24 @@ public interface ApiExecutorService {
 
     ApiResponseDTO executeRequest(ExecuteRequestDTO request);
     ApiResponseDTO executeAndSave(ExecuteRequestDTO request, boolean saveToHistory);
+
+    /**
+     * Executes on the configured engine. With the async engine the future completes
+     * once the response has been received and saved to history; with the classic
+     * engine it is already completed when returned.
+     */
+    CompletableFuture<ApiResponseDTO> executeRequestAsync(ExecuteRequestDTO request);
+
+    /**
+     * {@link #executeRequestAsync(ExecuteRequestDTO)} with history optional.
+     */
+    CompletableFuture<ApiResponseDTO> executeAndSaveAsync(ExecuteRequestDTO request, boolean saveToHistory);
+
+    /**
+     * Starts a load test against the pooled client. Options are validated and the request is
+     * resolved before this returns; the test itself runs in the background, passing a snapshot
+     * to {@code listener} every second. The future completes with the whole-run summary.
+     * Samples are not saved to history.
+     */
+    CompletableFuture<LoadTestSnapshotDTO> runLoadTest(LoadTestDTO options, Consumer<LoadTestSnapshotDTO> listener);
 }
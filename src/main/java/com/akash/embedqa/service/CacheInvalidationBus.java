@@ -0,0 +1,52 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.enums.CacheTopic;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells every EmbedQA instance sharing the database that an entity changed, so each
+ * one can evict its in-process copy.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Announces a change to entity {@code id}. Inside a transaction the message goes
+     * out on commit and is dropped on rollback. The publishing instance is not
+     * notified; it updates its own cache.
+     */
+    void publish(CacheTopic topic, Long id);
+
+    /**
+     * Registers the local cache to evict when another instance publishes on
+     * {@code topic}.
+     */
+    void subscribe(CacheTopic topic, Listener listener);
+
+    interface Listener {
+
+        void evict(Long id);
+
+        /**
+         * Messages may have been missed, for example while the bus was reconnecting.
+         */
+        void evictAll();
+
+        static Listener of(Consumer<Long> evict, Runnable evictAll) {
+            return new Listener() {
+                @Override
+                public void evict(Long id) {
+                    evict.accept(id);
+                }
+
+                @Override
+                public void evictAll() {
+                    evictAll.run();
+                }
+            };
+        }
+    }
+}
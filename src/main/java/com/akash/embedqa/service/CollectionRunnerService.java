@@ -0,0 +1,13 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.model.dtos.request.CollectionRunDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunReportDTO;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface CollectionRunnerService {
+
+    CollectionRunReportDTO run(Long collectionId, CollectionRunDTO options);
+}
@@ -1,7 +1,10 @@
 package com.akash.embedqa.service;
 
 import com.akash.embedqa.model.dtos.request.CollectionDTO;
+import com.akash.embedqa.model.dtos.response.CollectionIndexDTO;
 import com.akash.embedqa.model.dtos.response.CollectionResponseDTO;
+import com.akash.embedqa.model.dtos.response.RequestSummaryDTO;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -17,4 +20,17 @@ public interface CollectionService {
     CollectionResponseDTO update(Long id, CollectionDTO dto);
     void delete(Long id);
 
+    /**
+     * Id, name and request count of every collection, without the requests.
+     */
+    List<CollectionIndexDTO> getIndex();
+
+    /**
+     * Keyset page of a collection's requests in id order, starting after {@code cursor}
+     * (null or blank for the first page). Runs no count query.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    Slice<RequestSummaryDTO> getRequestsAfter(Long collectionId, String cursor, int size);
+
 }
@@ -0,0 +1,50 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.model.entities.RequestHistory;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Out-of-row, content-addressed storage for history request/response bodies and
+ * response headers.
+ *
+ * Each distinct payload is written once, compressed, to history_bodies and shared by
+ * reference count; request_history only keeps ids (plus body size and hash), so
+ * listings and stats never touch payload bytes and storage grows with distinct
+ * payloads rather than executions.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface HistoryBodyStore {
+
+    /**
+     * Stores (or references) the bodies and response headers of each entry and points
+     * the entry at them. Must run in the transaction that saves the entries.
+     */
+    void storeBodies(List<RequestHistory> histories);
+
+    /**
+     * Decoded payload, or null if {@code bodyId} is null or unknown.
+     */
+    String load(Long bodyId);
+
+    /**
+     * Payload pretty-printed for its content type (see {@code BodyFormatter}), or as stored
+     * if it is neither JSON nor XML. Cached: a body id always names the same content.
+     */
+    String loadFormatted(Long bodyId, String contentType);
+
+    /**
+     * Drops the references held by deleted entries; one per occurrence of an id.
+     */
+    void release(Collection<Long> bodyIds);
+
+    /**
+     * Removes payloads no history entry refers to. Returns how many were removed.
+     */
+    int deleteOrphans();
+
+    void deleteAll();
+}
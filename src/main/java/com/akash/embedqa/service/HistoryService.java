@@ -1,12 +1,18 @@
 package com.akash.embedqa.service;
 
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.enums.RollupInterval;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
 import com.akash.embedqa.model.dtos.response.HistoryResponseDTO;
+import com.akash.embedqa.model.dtos.response.HistoryTimeSeriesPointDTO;
 import com.akash.embedqa.model.entities.RequestHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,6 +23,11 @@ public interface HistoryService {
 
     RequestHistory saveHistory(RequestHistory history);
 
+    /**
+     * Saves entries in one transaction; inserts are JDBC-batched.
+     */
+    List<RequestHistory> saveAll(List<RequestHistory> histories);
+
     Page<HistoryResponseDTO> getHistory(
             HttpMethod method,
             Integer statusCode,
@@ -26,13 +37,39 @@ public interface HistoryService {
             Pageable pageable
     );
 
+    /**
+     * Keyset page of history, newest first, starting after {@code cursor} (null or blank
+     * for the first page). Runs no count query; {@link Slice#hasNext()} tells whether
+     * another page exists.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    Slice<HistoryResponseDTO> getHistoryAfter(HistoryFilterDTO filter, String cursor, int size);
+
     HistoryResponseDTO getById(Long id);
 
+    /**
+     * Response body of an entry, as received or pretty-printed for the Content-Type it
+     * was received with. Formatting happens on first request and is cached per body.
+     */
+    String getResponseBody(Long id, BodyFormat format);
+
     void deleteById(Long id);
 
     void clearAll();
 
-    HistoryStats getStats();
+    /**
+     * Served from the rollup tables when the filter allows it (no URL search, success/error
+     * status filter only, minute-aligned bounds); otherwise aggregated over request_history.
+     */
+    HistoryStats getStats(HistoryFilterDTO filter);
+
+    /**
+     * Rollup buckets between the bounds (rounded out to whole buckets), including empty ones.
+     * Defaults to the last hour of minutes or the last day of hours.
+     */
+    List<HistoryTimeSeriesPointDTO> getTimeSeries(RollupInterval interval, LocalDateTime fromDate,
+                                                  LocalDateTime toDate, HttpMethod method, String host);
 
     void deleteOlderThan(int days);
 
@@ -41,6 +78,9 @@ public interface HistoryService {
             Long successCount,
             Long errorCount,
             Double avgResponseTime,
+            Double p50ResponseTime,
+            Double p95ResponseTime,
+            Double p99ResponseTime,
             Map<String, Long> methodBreakdown
     ) {}
 }
@@ -0,0 +1,19 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.model.entities.RequestHistory;
+
+/**
+ * Write-behind front for history persistence: executions hand over their entry
+ * and return without waiting for the database.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface HistoryWriter {
+
+    /**
+     * Queues an entry for the next batch. When the queue is full the configured
+     * overflow policy applies.
+     */
+    void submit(RequestHistory history);
+}
@@ -0,0 +1,15 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.model.dtos.request.HttpPoolLimitsDTO;
+import com.akash.embedqa.model.dtos.response.HttpPoolStatsDTO;
+
+import java.util.List;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface HttpPoolService {
+    List<HttpPoolStatsDTO> getPools();
+    List<HttpPoolStatsDTO> resize(HttpPoolLimitsDTO limits);
+}
@@ -1,5 +1,6 @@
 package com.akash.embedqa.service;
 
+import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
 import com.akash.embedqa.model.dtos.request.SaveRequestDTO;
 import com.akash.embedqa.model.dtos.response.RequestDetailDTO;
 import com.akash.embedqa.model.dtos.response.RequestSummaryDTO;
@@ -15,6 +16,12 @@ public interface RequestService {
     RequestDetailDTO save(SaveRequestDTO dto);
     RequestDetailDTO update(Long id, SaveRequestDTO dto);
     RequestDetailDTO getById(Long id);
+
+    /**
+     * Loads a saved request ready for execution; a non-null environmentId
+     * overrides the request's own environment.
+     */
+    ExecuteRequestDTO toExecuteRequest(Long id, Long environmentId);
     Page<RequestSummaryDTO> getAll(Pageable pageable);
     void delete(Long id);
 
@@ -0,0 +1,35 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.utils.ResponseBodyCapture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Captures executed response bodies without holding them on the heap in full, and
+ * keeps spilled full bodies for download until they expire.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public interface ResponseBodySpool {
+
+    /**
+     * Starts a capture with the configured limit, for bodies that arrive in chunks.
+     */
+    ResponseBodyCapture newCapture();
+
+    /**
+     * Reads the stream to its end through a pooled buffer.
+     */
+    ResponseBodyCapture.Captured capture(InputStream body) throws IOException;
+
+    /**
+     * The spilled body with this id, if it has not expired yet.
+     *
+     * @throws IllegalArgumentException if the id is malformed
+     */
+    Optional<Path> find(String spoolId);
+}
@@ -1,41 +1,66 @@
 package com.akash.embedqa.service.impl;
 
+import com.akash.embedqa.config.ExecutionConfig;
+import com.akash.embedqa.config.HttpClientRegistry;
+import com.akash.embedqa.config.HttpClientRegistry.TransportProfile;
 import com.akash.embedqa.constant.AppConstant;
 import com.akash.embedqa.enums.AuthType;
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.BodyType;
+import com.akash.embedqa.metrics.ExecutionMetrics;
+import com.akash.embedqa.metrics.ExecutionMetrics.Stage;
 import com.akash.embedqa.model.dtos.request.AuthConfigDTO;
 import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
 import com.akash.embedqa.model.dtos.request.KeyValuePairDTO;
+import com.akash.embedqa.model.dtos.request.LoadTestDTO;
 import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
+import com.akash.embedqa.model.dtos.response.LoadTestSnapshotDTO;
 import com.akash.embedqa.model.entities.RequestHistory;
 import com.akash.embedqa.service.ApiExecutorService;
 import com.akash.embedqa.service.EnvironmentService;
-import com.akash.embedqa.service.HistoryService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.akash.embedqa.service.HistoryWriter;
+import com.akash.embedqa.service.RequestService;
+import com.akash.embedqa.service.ResponseBodySpool;
+import com.akash.embedqa.utils.BodyFormatter;
+import com.akash.embedqa.utils.PhaseTimings;
+import com.akash.embedqa.utils.ResponseBodyCapture;
+import com.akash.embedqa.utils.VariableTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
 import org.apache.hc.client5.http.classic.methods.HttpPatch;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
 import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.*;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
 import org.apache.hc.core5.net.URIBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -47,13 +72,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ApiExecutorServiceImpl implements ApiExecutorService {
 
-    private final CloseableHttpClient httpClient;
+    private final HttpClientRegistry httpClientRegistry;
     private final ObjectMapper objectMapper;
     private final EnvironmentService environmentService;
-    private final HistoryService historyService;
+    private final HistoryWriter historyWriter;
+    private final RequestService requestService;
+    private final ResponseBodySpool responseBodySpool;
+    private final ExecutionMetrics executionMetrics;
 
-    // Pattern to match environment variables: {{variableName}}
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)}}");
+    @Qualifier(ExecutionConfig.API_EXECUTION_EXECUTOR)
+    private final Executor apiExecutionExecutor;
 
     @Override
     public ApiResponseDTO executeRequest(ExecuteRequestDTO request) {
@@ -62,97 +90,246 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
 
     @Override
     public ApiResponseDTO executeAndSave(ExecuteRequestDTO request, boolean saveToHistory) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        HttpClientContext context = HttpClientContext.create();
+        PhaseTimings timings = PhaseTimings.attach(context);
+        ExecutionMetrics.Execution metrics = executionMetrics.start(request.getMethod());
 
         try {
             // Resolve environment variables if environment is specified
-            Map<String, String> variables = getEnvironmentVariables(request.getEnvironmentId());
+            Map<String, String> variables = getEnvironmentVariables(request.getEnvironmentId(), metrics);
 
-            // Build the URL with query parameters
-            String resolvedUrl = resolveVariables(request.getUrl(), variables);
+            long buildStart = System.nanoTime();
+            HttpUriRequestBase httpRequest = buildHttpRequest(request, variables);
+            String requestUrl = httpRequest.getUri().toString();
+            metrics.stage(Stage.REQUEST_BUILD, buildStart);
+            metrics.target(httpRequest.getUri());
 
-            // Ensure URL has a protocol (default to http:// if missing)
-            resolvedUrl = ensureProtocol(resolvedUrl);
+            // Execute the request
+            log.debug("Executing {} request to: {}", request.getMethod(), requestUrl);
 
-            URI uri = buildUri(resolvedUrl, request.getQueryParams(), variables);
+            CloseableHttpClient httpClient = httpClientRegistry.classic(TransportProfile.of(request.getVerifySsl()));
+            metrics.upstreamStarted();
+            ApiResponseDTO response = httpClient.execute(httpRequest, context, httpResponse ->
+                    buildResponse(httpResponse, startTime, timings, requestUrl, request.getMethod().name()));
+            metrics.upstreamCompleted(timings);
+            timings.applyTo(response);
 
-            // Create the appropriate HTTP request
-            HttpUriRequestBase httpRequest = request.getMethod().create(uri);
+            if (saveToHistory) {
+                saveToHistory(request, response, requestUrl, metrics);
+            }
 
-            // Add headers
-            addHeaders(httpRequest, request.getHeaders(), variables);
+            return complete(request, response, metrics);
 
-            // Add authentication
-            addAuthentication(httpRequest, request.getAuthType(), request.getAuthConfig(), variables);
+        } catch (Exception e) {
+            return handleFailure(request, e, startTime, timings, metrics, saveToHistory);
+        }
+    }
 
-            if (request.getMethod().supportsBody()) {
-                addBody(httpRequest, request, variables);
-            }
+    @Override
+    public CompletableFuture<ApiResponseDTO> executeRequestAsync(ExecuteRequestDTO request) {
+        return executeAndSaveAsync(request, true);
+    }
 
-            // Execute the request
-            log.debug("Executing {} request to: {}", request.getMethod(), uri);
+    @Override
+    public CompletableFuture<ApiResponseDTO> executeAndSaveAsync(ExecuteRequestDTO request, boolean saveToHistory) {
+        CloseableHttpAsyncClient asyncClient = httpClientRegistry.async(TransportProfile.of(request.getVerifySsl()))
+                .orElse(null);
+        if (asyncClient == null) {
+            // Classic engine: execute on the calling thread
+            return CompletableFuture.completedFuture(executeAndSave(request, saveToHistory));
+        }
 
-            ApiResponseDTO response = httpClient.execute(httpRequest, httpResponse -> {
-                long responseTime = System.currentTimeMillis() - startTime;
-                return buildResponse(httpResponse, responseTime, uri.toString(), request.getMethod().name());
-            });
+        long startTime = System.nanoTime();
+        HttpClientContext context = HttpClientContext.create();
+        PhaseTimings timings = PhaseTimings.attach(context);
+        ExecutionMetrics.Execution metrics = executionMetrics.start(request.getMethod());
+        CompletableFuture<ApiResponseDTO> exchange = new CompletableFuture<>();
 
-            if (saveToHistory) {
-                saveToHistory(request, response, uri.toString());
-            }
+        try {
+            Map<String, String> variables = getEnvironmentVariables(request.getEnvironmentId(), metrics);
+
+            long buildStart = System.nanoTime();
+            HttpUriRequestBase httpRequest = buildHttpRequest(request, variables);
+            String requestUrl = httpRequest.getUri().toString();
+            SimpleHttpRequest asyncRequest = toAsyncRequest(httpRequest);
+            metrics.stage(Stage.REQUEST_BUILD, buildStart);
+            metrics.target(httpRequest.getUri());
+
+            log.debug("Executing {} request asynchronously to: {}", request.getMethod(), requestUrl);
+
+            metrics.upstreamStarted();
+            asyncClient.execute(
+                    SimpleRequestProducer.create(asyncRequest),
+                    // Streams the body into a capture instead of buffering all of it
+                    new BasicResponseConsumer<>(new CapturingEntityConsumer(responseBodySpool.newCapture())),
+                    context,
+                    new FutureCallback<>() {
+                        @Override
+                        public void completed(Message<HttpResponse, ResponseBodyCapture.Captured> httpResponse) {
+                            timings.bodyReceived();
+                            metrics.upstreamCompleted(timings);
+                            long responseTime = elapsedMillis(startTime);
+                            try {
+                                ApiResponseDTO response = buildResponse(httpResponse, responseTime,
+                                        requestUrl, request.getMethod().name());
+                                timings.applyTo(response);
+                                exchange.complete(response);
+                            } catch (Exception e) {
+                                exchange.completeExceptionally(e);
+                            }
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                            exchange.completeExceptionally(ex);
+                        }
+
+                        @Override
+                        public void cancelled() {
+                            exchange.completeExceptionally(new IOException("Request cancelled"));
+                        }
+                    });
+
+            // The history hand-off can block (BLOCK overflow policy), so hop off the I/O reactor thread
+            return exchange.handleAsync((response, error) -> {
+                if (error != null) {
+                    return handleFailure(request, unwrap(error), startTime, timings, metrics, saveToHistory);
+                }
+                if (saveToHistory) {
+                    saveToHistory(request, response, requestUrl, metrics);
+                }
+                return complete(request, response, metrics);
+            }, apiExecutionExecutor);
 
-            return response;
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                    handleFailure(request, e, startTime, timings, metrics, saveToHistory));
+        }
+    }
 
+    @Override
+    public CompletableFuture<LoadTestSnapshotDTO> runLoadTest(LoadTestDTO options,
+                                                              Consumer<LoadTestSnapshotDTO> listener) {
+        if ((options.getRequest() == null) == (options.getRequestId() == null)) {
+            throw new IllegalArgumentException("Exactly one of request or requestId is required");
+        }
+        if ((options.getTargetRps() == null) == (options.getConcurrency() == null)) {
+            throw new IllegalArgumentException("Exactly one of targetRps or concurrency is required");
+        }
+
+        ExecuteRequestDTO request = options.getRequest() != null
+                ? options.getRequest()
+                : requestService.toExecuteRequest(options.getRequestId(), options.getEnvironmentId());
+
+        // Variables are resolved once; every sample sends a copy of the same request
+        HttpUriRequestBase template;
+        try {
+            template = buildHttpRequest(request, getEnvironmentVariables(request.getEnvironmentId(), null));
         } catch (URISyntaxException e) {
-            log.error("Invalid URL: {}", request.getUrl(), e);
-            ApiResponseDTO errorResponse = buildErrorResponse(request, "Invalid URL: " + e.getMessage(),
-                    System.currentTimeMillis() - startTime);
-            if (saveToHistory) {
-                saveToHistory(request, errorResponse, request.getUrl());
-            }
-            return errorResponse;
-        } catch (IOException e) {
-            log.error("Request execution failed", e);
-            ApiResponseDTO errorResponse = buildErrorResponse(request, "Connection failed: " + e.getMessage(),
-                    System.currentTimeMillis() - startTime);
-            if (saveToHistory) {
-                saveToHistory(request, errorResponse, request.getUrl());
-            }
-            return errorResponse;
-        } catch (Exception e) {
-            log.error("Unexpected error during request execution", e);
-            ApiResponseDTO errorResponse = buildErrorResponse(request, "Unexpected error: " + e.getMessage(),
-                    System.currentTimeMillis() - startTime);
-            if (saveToHistory) {
-                saveToHistory(request, errorResponse, request.getUrl());
-            }
-            return errorResponse;
+            throw new IllegalArgumentException("Invalid URL: " + e.getMessage());
         }
+
+        log.info("Starting load test: {} {} for {}s at {}", request.getMethod(), request.getUrl(),
+                options.getDurationSeconds(), options.getTargetRps() != null
+                        ? options.getTargetRps() + " rps" : options.getConcurrency() + " workers");
+
+        CloseableHttpClient httpClient = httpClientRegistry.classic(TransportProfile.of(request.getVerifySsl()));
+        LoadTestRunner runner = new LoadTestRunner(httpClient, template, template.getConfig(), options, listener);
+        return CompletableFuture.supplyAsync(runner::run, apiExecutionExecutor);
     }
 
-    private Map<String, String> getEnvironmentVariables(Long environmentId) {
-        if (environmentId == null) {
-            return Collections.emptyMap();
+    private HttpUriRequestBase buildHttpRequest(ExecuteRequestDTO request, Map<String, String> variables)
+            throws URISyntaxException {
+        // Build the URL with query parameters
+        String resolvedUrl = VariableTemplate.resolve(request.getUrl(), variables);
+
+        // Ensure URL has a protocol (default to http:// if missing)
+        resolvedUrl = ensureProtocol(resolvedUrl);
+
+        URI uri = buildUri(resolvedUrl, request.getQueryParams(), variables);
+
+        // Create the appropriate HTTP request
+        HttpUriRequestBase httpRequest = request.getMethod().create(uri);
+        httpRequest.setConfig(httpClientRegistry.requestConfig(request.getTimeout(), request.getFollowRedirects()));
+
+        // Add headers
+        addHeaders(httpRequest, request.getHeaders(), variables);
+
+        // Add authentication
+        addAuthentication(httpRequest, request.getAuthType(), request.getAuthConfig(), variables);
+
+        if (request.getMethod().supportsBody()) {
+            addBody(httpRequest, request, variables);
         }
-        return environmentService.getVariablesAsMap(environmentId);
+
+        return httpRequest;
     }
 
-    private String resolveVariables(String input, Map<String, String> variables) {
-        if (input == null || variables.isEmpty()) {
-            return input;
+    private SimpleHttpRequest toAsyncRequest(HttpUriRequestBase httpRequest)
+            throws URISyntaxException, IOException {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(httpRequest.getMethod())
+                .setUri(httpRequest.getUri())
+                .setHeaders(httpRequest.getHeaders())
+                .setRequestConfig(httpRequest.getConfig());
+
+        HttpEntity entity = httpRequest.getEntity();
+        if (entity != null) {
+            builder.setBody(EntityUtils.toByteArray(entity), ContentType.parse(entity.getContentType()));
         }
 
-        Matcher matcher = VARIABLE_PATTERN.matcher(input);
-        StringBuilder result = new StringBuilder();
+        return builder.build();
+    }
 
-        while (matcher.find()) {
-            String varName = matcher.group(1).trim();
-            String replacement = variables.getOrDefault(varName, matcher.group(0));
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+    private ApiResponseDTO handleFailure(ExecuteRequestDTO request, Exception e, long startTime,
+                                         PhaseTimings timings, ExecutionMetrics.Execution metrics,
+                                         boolean saveToHistory) {
+        metrics.failed(e);
+
+        String errorMessage;
+        if (e instanceof URISyntaxException) {
+            log.error("Invalid URL: {}", request.getUrl(), e);
+            errorMessage = "Invalid URL: " + e.getMessage();
+        } else if (e instanceof IOException) {
+            log.error("Request execution failed", e);
+            errorMessage = "Connection failed: " + e.getMessage();
+        } else {
+            log.error("Unexpected error during request execution", e);
+            errorMessage = "Unexpected error: " + e.getMessage();
         }
-        matcher.appendTail(result);
 
-        return result.toString();
+        ApiResponseDTO errorResponse = buildErrorResponse(request, errorMessage, elapsedMillis(startTime));
+        // Shows how far the exchange got, e.g. connected but no first byte before the timeout
+        timings.applyTo(errorResponse);
+        if (saveToHistory) {
+            saveToHistory(request, errorResponse, request.getUrl(), metrics);
+        }
+        metrics.completed(null);
+        return errorResponse;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        return cause instanceof Exception exception ? exception : new RuntimeException(cause);
+    }
+
+    // metrics may be null for executions that are not timed (load test setup)
+    private Map<String, String> getEnvironmentVariables(Long environmentId, ExecutionMetrics.Execution metrics) {
+        if (environmentId == null) {
+            return Collections.emptyMap();
+        }
+        long lookupStart = System.nanoTime();
+        Map<String, String> variables = environmentService.getVariablesAsMap(environmentId);
+        if (metrics != null) {
+            metrics.stage(Stage.ENV_LOOKUP, lookupStart);
+        }
+        return variables;
     }
 
     private String ensureProtocol(String url) {
@@ -176,8 +353,8 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
         for (KeyValuePairDTO header : headers) {
             if (Boolean.TRUE.equals(header.getEnabled()) &&
                     header.getKey() != null && !header.getKey().isBlank()) {
-                String name = resolveVariables(header.getKey(), variables);
-                String value = resolveVariables(header.getValue(), variables);
+                String name = VariableTemplate.resolve(header.getKey(), variables);
+                String value = VariableTemplate.resolve(header.getValue(), variables);
                 request.addHeader(name, value);
             }
         }
@@ -198,8 +375,8 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
             for (KeyValuePairDTO param : queryParams) {
                 if (Boolean.TRUE.equals(param.getEnabled()) &&
                         param.getKey() != null && !param.getKey().isBlank()) {
-                    String key = resolveVariables(param.getKey(), variables);
-                    String value = resolveVariables(param.getValue(), variables);
+                    String key = VariableTemplate.resolve(param.getKey(), variables);
+                    String value = VariableTemplate.resolve(param.getValue(), variables);
                     uriBuilder.addParameter(key, value);
                 }
             }
@@ -208,7 +385,9 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
         return uriBuilder.build();
     }
 
-    private void saveToHistory(ExecuteRequestDTO request, ApiResponseDTO response, String resolvedUrl) {
+    private void saveToHistory(ExecuteRequestDTO request, ApiResponseDTO response, String resolvedUrl,
+                               ExecutionMetrics.Execution metrics) {
+        long saveStart = System.nanoTime();
         try {
             // Convert headers to JSON
             String requestHeadersJson = null;
@@ -268,16 +447,23 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
                     .responseHeaders(responseHeadersJson)
                     .responseBody(response.getBody())
                     .responseTime(response.getResponseTimeMs() != null ? response.getResponseTimeMs() : 0L)
+                    .dnsLookupTime(response.getDnsLookupTimeMs())
+                    .connectionTime(response.getConnectionTimeMs())
+                    .tlsHandshakeTime(response.getTlsHandshakeTimeMs())
+                    .firstByteTime(response.getFirstByteTimeMs())
+                    .downloadTime(response.getDownloadTimeMs())
                     .responseSize(response.getBodySize())
                     .executedAt(java.time.LocalDateTime.now())
                     .build();
 
-            historyService.saveHistory(history);
-            log.debug("Saved request history for URL: {}", resolvedUrl);
+            historyWriter.submit(history);
+            log.debug("Queued request history for URL: {}", resolvedUrl);
 
         } catch (Exception e) {
             log.error("Failed to save request history: {}", e.getMessage(), e);
             // Don't throw - we don't want history saving failures to affect the response
+        } finally {
+            metrics.stage(Stage.HISTORY_SAVE, saveStart);
         }
     }
 
@@ -301,7 +487,7 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
             return;
         }
 
-        String resolvedBody = resolveVariables(body, variables);
+        String resolvedBody = VariableTemplate.resolve(body, variables);
         String contentType = bodyType.getContentType();
 
         StringEntity entity = new StringEntity(resolvedBody, ContentType.parse(contentType));
@@ -329,8 +515,8 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
         List<NameValuePair> params = new ArrayList<>();
         for (KeyValuePairDTO pair : formData) {
             if (Boolean.TRUE.equals(pair.getEnabled()) && pair.getKey() != null && !pair.getKey().isBlank()) {
-                String key = resolveVariables(pair.getKey(), variables);
-                String value = resolveVariables(pair.getValue(), variables);
+                String key = VariableTemplate.resolve(pair.getKey(), variables);
+                String value = VariableTemplate.resolve(pair.getValue(), variables);
                 params.add(new BasicNameValuePair(key, value != null ? value : ""));
             }
         }
@@ -350,18 +536,19 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
         }
     }
 
-    private ApiResponseDTO buildResponse(ClassicHttpResponse response, long responseTime,
+    private ApiResponseDTO buildResponse(ClassicHttpResponse response, long startTime, PhaseTimings timings,
                                          String requestUrl, String requestMethod) throws IOException {
-        // Get response body
-        String body = null;
-        Long bodySize = 0L;
+        // Get response body, streamed through a pooled buffer; only the capped head stays in memory
+        ResponseBodyCapture.Captured body = null;
         String contentType = null;
 
         HttpEntity entity = response.getEntity();
         if (entity != null) {
-            byte[] bodyBytes = EntityUtils.toByteArray(entity);
-            bodySize = (long) bodyBytes.length;
-            body = new String(bodyBytes, StandardCharsets.UTF_8);
+            try (InputStream content = entity.getContent()) {
+                if (content != null) {
+                    body = responseBodySpool.capture(content);
+                }
+            }
 
             Header contentTypeHeader = entity.getContentType() != null ?
                     new org.apache.hc.core5.http.message.BasicHeader(AppConstant.CONTENT_TYPE, entity.getContentType()) :
@@ -371,6 +558,33 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
             }
         }
 
+        timings.bodyReceived();
+        return buildResponse(response, body, contentType, elapsedMillis(startTime), requestUrl, requestMethod);
+    }
+
+    private ApiResponseDTO buildResponse(Message<HttpResponse, ResponseBodyCapture.Captured> message,
+                                         long responseTime, String requestUrl, String requestMethod) {
+        String contentType = Optional.ofNullable(message.getHead().getFirstHeader(AppConstant.CONTENT_TYPE))
+                .map(Header::getValue)
+                .orElse(null);
+
+        return buildResponse(message.getHead(), message.getBody(), contentType, responseTime,
+                requestUrl, requestMethod);
+    }
+
+    private ApiResponseDTO buildResponse(HttpResponse response, ResponseBodyCapture.Captured captured,
+                                         String contentType, long responseTime, String requestUrl,
+                                         String requestMethod) {
+        String body = null;
+        Long bodySize = 0L;
+        boolean truncated = false;
+
+        if (captured != null) {
+            bodySize = captured.size();
+            truncated = captured.truncated();
+            body = captured.headText();
+        }
+
         // Get response headers
         List<ApiResponseDTO.HeaderDTO> headers = Arrays.stream(response.getHeaders())
                 .map(h -> ApiResponseDTO.HeaderDTO.builder()
@@ -383,16 +597,14 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
         int statusCode = response.getCode();
         String statusText = response.getReasonPhrase();
 
-        // Pretty print JSON if content type is JSON
-        if (contentType != null && contentType.contains("json") && body != null) {
-            body = prettyPrintJson(body);
-        }
-
         return ApiResponseDTO.builder()
                 .statusCode(statusCode)
                 .statusText(statusText)
                 .body(body)
                 .bodySize(bodySize)
+                .bodyTruncated(truncated)
+                .bodySha256(captured != null ? captured.sha256() : null)
+                .bodyId(captured != null ? captured.spoolId() : null)
                 .contentType(contentType)
                 .headers(headers)
                 .responseTimeMs(responseTime)
@@ -417,13 +629,19 @@ public class ApiExecutorServiceImpl implements ApiExecutorService {
                 .build();
     }
 
-    private String prettyPrintJson(String json) {
-        try {
-            Object jsonObject = objectMapper.readValue(json, Object.class);
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonObject);
-        } catch (JsonProcessingException e) {
-            // Return original if not valid JSON
-            return json;
+    /**
+     * Pretty-prints the body if the request asked for it and publishes the execution's
+     * metrics. Runs after the history hand-off, so history always keeps the body as received.
+     */
+    private ApiResponseDTO complete(ExecuteRequestDTO request, ApiResponseDTO response,
+                                    ExecutionMetrics.Execution metrics) {
+        // A truncated body cannot be parsed
+        if (request.getFormat() == BodyFormat.PRETTY && !Boolean.TRUE.equals(response.getBodyTruncated())) {
+            long formatStart = System.nanoTime();
+            response.setBody(BodyFormatter.format(response.getBody(), response.getContentType()));
+            metrics.stage(Stage.PRETTY_PRINT, formatStart);
         }
+        metrics.completed(response.getStatusCode());
+        return response;
     }
 }
@@ -0,0 +1,432 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.enums.HistoryOverflowPolicy;
+import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.service.HistoryService;
+import com.akash.embedqa.service.HistoryWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind history persistence.
+ *
+ * Executions put their entry on a bounded queue and return. A single background
+ * thread drains it and saves a batch when {@code batch-size} entries are waiting or
+ * {@code flush-interval-ms} after the first one arrived, whichever comes first.
+ * Pooled sequence ids plus {@code reWriteBatchedInserts} turn each batch into
+ * multi-row INSERT statements.
+ *
+ * When the database rejects a batch, its halves are saved separately, down to single
+ * entries, so one entry that can never be written does not take its neighbours with
+ * it. Other failures (database unreachable) fail the batch as a whole.
+ *
+ * With the SPILL policy, overflow and failed batches are appended as JSON lines to
+ * files in {@code spill-dir} and written once the queue is empty. That also covers
+ * entries left over from a crash, which are picked up on the next start. Entries the
+ * database rejects, and lines that do not parse (one cut short by a crash), are moved
+ * to {@code history.failed} in the same directory instead of being retried.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+public class BatchingHistoryWriter implements HistoryWriter, SmartLifecycle {
+
+    private static final String SPILL_SUFFIX = ".jsonl";
+    private static final String FAILED_FILE = "history.failed";
+
+    private final HistoryService historyService;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<RequestHistory> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final HistoryOverflowPolicy overflowPolicy;
+    private final Path spillDir;
+
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter failedCounter;
+
+    // Guards the open spill file; submitters and the writer thread both touch it
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private final AtomicBoolean spillPending = new AtomicBoolean();
+    private BufferedWriter spillWriter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public BatchingHistoryWriter(
+            HistoryService historyService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${embedqa.history.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${embedqa.history.writer.batch-size:50}") int batchSize,
+            @Value("${embedqa.history.writer.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${embedqa.history.writer.overflow-policy:BLOCK}") HistoryOverflowPolicy overflowPolicy,
+            @Value("${embedqa.history.writer.spill-dir:${java.io.tmpdir}/embedqa-history-spill}") Path spillDir) {
+        this.historyService = historyService;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.spillDir = spillDir;
+
+        Gauge.builder("embedqa.history.queue.depth", queue, BlockingQueue::size)
+                .description("History entries waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("embedqa.history.flush")
+                .description("Time to write one batch of history entries")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("embedqa.history.dropped")
+                .description("History entries discarded because the queue was full")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("embedqa.history.spilled")
+                .description("History entries written to the spill directory")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("embedqa.history.failed")
+                .description("History entries that could not be written or spilled")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void submit(RequestHistory history) {
+        if (queue.offer(history)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(history);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                }
+            }
+            case DROP -> droppedCounter.increment();
+            case SPILL -> spill(List.of(history));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (overflowPolicy == HistoryOverflowPolicy.SPILL) {
+            spillPending.set(hasSpillFiles());
+        }
+        running = true;
+        writerThread = Thread.ofPlatform()
+                .name("embedqa-history-writer")
+                .daemon()
+                .start(this::drainLoop);
+    }
+
+    /**
+     * Lets the writer thread flush what is already queued and exit. Runs before the
+     * DataSource is closed. The thread is not interrupted: an interrupt during a flush
+     * would abort the connection checkout.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} history entries were not written before shutdown", queue.size());
+        }
+        closeSpillWriter();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<RequestHistory> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                RequestHistory first = running
+                        ? queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                if (first == null) {
+                    replaySpill();
+                    continue;
+                }
+
+                batch.add(first);
+                long flushAt = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = flushAt - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    RequestHistory next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<RequestHistory> batch) {
+        List<RequestHistory> rejected = new ArrayList<>();
+        List<RequestHistory> unwritten = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            save(batch, rejected, unwritten);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (overflowPolicy == HistoryOverflowPolicy.SPILL) {
+            spill(unwritten);
+            quarantine(toLines(rejected));
+        } else {
+            failedCounter.increment(unwritten.size() + rejected.size());
+        }
+    }
+
+    /**
+     * Saves the entries as one batch. If the database rejects it, the halves are saved
+     * separately; a single rejected entry goes to {@code rejected}. After any other
+     * failure the batch goes to {@code unwritten} whole, since splitting would only
+     * repeat the failure.
+     */
+    private void save(List<RequestHistory> entries, List<RequestHistory> rejected,
+                      List<RequestHistory> unwritten) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            historyService.saveAll(entries);
+            return;
+        } catch (Exception e) {
+            // Ids were assigned during the failed persist; let the retry allocate new ones
+            entries.forEach(history -> history.setId(null));
+            if (!isRejection(e)) {
+                log.error("Failed to write {} history entries: {}", entries.size(), e.getMessage(), e);
+                unwritten.addAll(entries);
+                return;
+            }
+            if (entries.size() == 1) {
+                RequestHistory history = entries.get(0);
+                log.error("History entry for {} {} was rejected: {}",
+                        history.getMethod(), history.getUrl(), e.getMessage());
+                rejected.add(history);
+                return;
+            }
+        }
+        int half = entries.size() / 2;
+        save(entries.subList(0, half), rejected, unwritten);
+        save(entries.subList(half, entries.size()), rejected, unwritten);
+    }
+
+    // Bad data (constraint violations, values too long), as opposed to losing the database
+    private static boolean isRejection(Exception e) {
+        return e instanceof NonTransientDataAccessException
+                && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private void spill(List<RequestHistory> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        spillLock.lock();
+        try {
+            if (spillWriter == null) {
+                Files.createDirectories(spillDir);
+                Path file = spillDir.resolve("history-" + System.currentTimeMillis() + SPILL_SUFFIX);
+                spillWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (RequestHistory history : entries) {
+                spillWriter.write(objectMapper.writeValueAsString(history));
+                spillWriter.newLine();
+            }
+            spillWriter.flush();
+            spillPending.set(true);
+            spilledCounter.increment(entries.size());
+        } catch (IOException e) {
+            log.error("Failed to spill {} history entries to {}: {}", entries.size(), spillDir, e.getMessage());
+            failedCounter.increment(entries.size());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Writes spilled entries back once the queue is idle. Files are replayed in
+     * batches; if the database cannot be reached the unwritten remainder is kept for
+     * the next attempt, while rejected entries and unreadable lines are quarantined.
+     */
+    private void replaySpill() {
+        if (!spillPending.get() || !queue.isEmpty()) {
+            return;
+        }
+        // New spills go to a fresh file from here on
+        closeSpillWriter();
+        spillPending.set(false);
+
+        try (Stream<Path> files = Files.list(spillDir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SPILL_SUFFIX)).sorted().toList()) {
+                if (!replayFile(file)) {
+                    spillPending.set(true);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read history spill directory {}: {}", spillDir, e.getMessage());
+            spillPending.set(true);
+        }
+    }
+
+    private boolean replayFile(Path file) throws IOException {
+        // Decoded leniently: a line cut short by a crash may end inside a character
+        List<String> lines = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).lines().toList();
+        log.info("Replaying {} spilled history entries from {}", lines.size(), file.getFileName());
+
+        for (int from = 0; from < lines.size(); from += batchSize) {
+            List<String> chunk = lines.subList(from, Math.min(from + batchSize, lines.size()));
+            List<RequestHistory> batch = new ArrayList<>(chunk.size());
+            List<String> unreadable = new ArrayList<>();
+            for (String line : chunk) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, RequestHistory.class));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable line in {}: {}", file.getFileName(), e.getMessage());
+                    unreadable.add(line);
+                }
+            }
+            quarantine(unreadable);
+
+            List<RequestHistory> rejected = new ArrayList<>();
+            List<RequestHistory> unwritten = new ArrayList<>();
+            long start = System.nanoTime();
+            try {
+                save(batch, rejected, unwritten);
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            quarantine(toLines(rejected));
+
+            if (!unwritten.isEmpty()) {
+                log.warn("Replay of {} stopped, will retry", file.getFileName());
+                List<String> remainder = new ArrayList<>(toLines(unwritten));
+                remainder.addAll(lines.subList(from + chunk.size(), lines.size()));
+                Files.write(file, remainder, StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+                return false;
+            }
+        }
+        Files.delete(file);
+        return true;
+    }
+
+    /**
+     * Appends lines that will never be written to {@code history.failed}, for an
+     * operator to inspect. They are counted as failed.
+     */
+    private void quarantine(List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        spillLock.lock();
+        try {
+            Files.createDirectories(spillDir);
+            Files.write(spillDir.resolve(FAILED_FILE), lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Failed to move {} history entries to {}: {}", lines.size(), FAILED_FILE, e.getMessage());
+        } finally {
+            failedCounter.increment(lines.size());
+            spillLock.unlock();
+        }
+    }
+
+    private List<String> toLines(List<RequestHistory> entries) {
+        List<String> lines = new ArrayList<>(entries.size());
+        for (RequestHistory history : entries) {
+            try {
+                lines.add(objectMapper.writeValueAsString(history));
+            } catch (IOException e) {
+                log.error("Failed to serialise history entry for {}: {}", history.getUrl(), e.getMessage());
+                failedCounter.increment();
+            }
+        }
+        return lines;
+    }
+
+    private boolean hasSpillFiles() {
+        if (!Files.isDirectory(spillDir)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.anyMatch(f -> f.toString().endsWith(SPILL_SUFFIX));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void closeSpillWriter() {
+        spillLock.lock();
+        try {
+            if (spillWriter != null) {
+                spillWriter.close();
+                spillWriter = null;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close history spill file: {}", e.getMessage());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.utils.ResponseBodyCapture;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityConsumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Async counterpart of {@code ResponseBodySpool.capture(InputStream)}: feeds the
+ * chunks the I/O reactor hands over straight into a {@link ResponseBodyCapture}
+ * instead of buffering the whole body first.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+final class CapturingEntityConsumer extends AbstractBinAsyncEntityConsumer<ResponseBodyCapture.Captured> {
+
+    private static final int CAPACITY_INCREMENT = 64 * 1024;
+
+    private final ResponseBodyCapture capture;
+
+    // Only needed for direct buffers, which the reactor rarely hands out
+    private byte[] scratch;
+
+    CapturingEntityConsumer(ResponseBodyCapture capture) {
+        this.capture = capture;
+    }
+
+    @Override
+    protected void streamStart(ContentType contentType) {
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return CAPACITY_INCREMENT;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        if (!src.hasArray() && scratch == null) {
+            scratch = new byte[8192];
+        }
+        capture.write(src, scratch);
+    }
+
+    @Override
+    protected ResponseBodyCapture.Captured generateContent() throws IOException {
+        return capture.finish();
+    }
+
+    @Override
+    public void releaseResources() {
+        capture.abort();
+    }
+}
@@ -0,0 +1,286 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.config.ExecutionConfig;
+import com.akash.embedqa.config.HttpClientRegistry;
+import com.akash.embedqa.enums.RunMode;
+import com.akash.embedqa.enums.RunOutcome;
+import com.akash.embedqa.exception.ResourceNotFoundException;
+import com.akash.embedqa.model.dtos.request.CollectionRunDTO;
+import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
+import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunReportDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunResultDTO;
+import com.akash.embedqa.model.entities.ApiCollection;
+import com.akash.embedqa.model.entities.ApiRequest;
+import com.akash.embedqa.repository.ApiCollectionRepository;
+import com.akash.embedqa.repository.ApiRequestRepository;
+import com.akash.embedqa.service.ApiExecutorService;
+import com.akash.embedqa.service.CollectionRunnerService;
+import com.akash.embedqa.utils.ExecuteRequestMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs every request of a collection and aggregates the results.
+ *
+ * Requests are fanned out on the execution executor (virtual threads when enabled).
+ * Parallelism is capped at the current per-route connection limit
+ * ({@link HttpClientRegistry#maxPerRoute()}): collections usually target a single
+ * host, and going past the per-route limit would only park callers in the connection
+ * pool until the connection request timeout.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CollectionRunnerServiceImpl implements CollectionRunnerService {
+
+    private final ApiCollectionRepository collectionRepository;
+    private final ApiRequestRepository apiRequestRepository;
+    private final ApiExecutorService apiExecutorService;
+    private final TransactionTemplate transactionTemplate;
+    private final HttpClientRegistry httpClientRegistry;
+
+    @Qualifier(ExecutionConfig.API_EXECUTION_EXECUTOR)
+    private final Executor apiExecutionExecutor;
+
+    @Override
+    public CollectionRunReportDTO run(Long collectionId, CollectionRunDTO options) {
+        CollectionRunDTO runOptions = options != null ? options : new CollectionRunDTO();
+
+        ApiCollection collection = collectionRepository.findById(collectionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Collection", collectionId));
+
+        // Load and map inside one short transaction; no connection is held while executing
+        List<RunItem> items = transactionTemplate.execute(status ->
+                loadRunItems(collectionId, runOptions.getEnvironmentId()));
+
+        int parallelism = runOptions.getMode() == RunMode.SEQUENTIAL ? 1
+                : Math.max(1, Math.min(runOptions.getParallelism(), httpClientRegistry.maxPerRoute()));
+        boolean saveToHistory = !Boolean.FALSE.equals(runOptions.getSaveToHistory());
+
+        log.info("Running collection {} ({} requests, mode {}, parallelism {})",
+                collectionId, items.size(), runOptions.getMode(), parallelism);
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long runStart = System.nanoTime();
+
+        List<CollectionRunResultDTO> results = switch (runOptions.getMode()) {
+            case SEQUENTIAL -> runSequential(items, Boolean.TRUE.equals(runOptions.getStopOnFailure()),
+                    runStart, saveToHistory);
+            case DEPENDENCY_ORDERED -> runDependencyOrdered(items, runOptions.getDependencies(),
+                    parallelism, runStart, saveToHistory);
+            case PARALLEL -> runParallel(items, parallelism, runStart, saveToHistory);
+        };
+
+        long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart);
+        return buildReport(collection, runOptions.getMode(), parallelism, startedAt, totalTimeMs, results);
+    }
+
+    private List<RunItem> loadRunItems(Long collectionId, Long environmentId) {
+        List<ApiRequest> requests = apiRequestRepository.findAllByCollectionIdWithHeaders(collectionId);
+        if (!requests.isEmpty()) {
+            apiRequestRepository.fetchQueryParams(requests);
+        }
+
+        return requests.stream()
+                .map(r -> new RunItem(r.getId(), ExecuteRequestMapper.fromSavedRequest(r, environmentId)))
+                .toList();
+    }
+
+    private List<CollectionRunResultDTO> runSequential(List<RunItem> items, boolean stopOnFailure,
+                                                       long runStart, boolean saveToHistory) {
+        List<CollectionRunResultDTO> results = new ArrayList<>(items.size());
+        boolean stopped = false;
+
+        for (RunItem item : items) {
+            if (stopped) {
+                results.add(skipped(item, "Skipped: run stopped after a failure"));
+                continue;
+            }
+            CollectionRunResultDTO result = execute(item, runStart, saveToHistory).join();
+            results.add(result);
+            stopped = stopOnFailure && result.getOutcome() == RunOutcome.FAILED;
+        }
+        return results;
+    }
+
+    private List<CollectionRunResultDTO> runParallel(List<RunItem> items, int parallelism,
+                                                     long runStart, boolean saveToHistory) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<CollectionRunResultDTO>> futures = new ArrayList<>(items.size());
+
+        for (RunItem item : items) {
+            // Acquire before submitting so large collections never flood the executor queue
+            permits.acquireUninterruptibly();
+            // The worker only submits with the async engine; the response completes the future later
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> execute(item, runStart, saveToHistory), apiExecutionExecutor)
+                    .thenCompose(Function.identity())
+                    .whenComplete((result, error) -> permits.release()));
+        }
+
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private List<CollectionRunResultDTO> runDependencyOrdered(List<RunItem> items,
+                                                              Map<Long, List<Long>> dependencies,
+                                                              int parallelism, long runStart,
+                                                              boolean saveToHistory) {
+        Map<Long, List<Long>> dependsOn = dependencies != null ? dependencies : Map.of();
+        List<List<RunItem>> waves = planWaves(items, dependsOn);
+
+        Map<Long, CollectionRunResultDTO> resultsById = new HashMap<>();
+        for (List<RunItem> wave : waves) {
+            List<RunItem> runnable = new ArrayList<>();
+            for (RunItem item : wave) {
+                Optional<Long> blocker = dependsOn.getOrDefault(item.requestId(), List.of()).stream()
+                        .filter(dep -> resultsById.get(dep).getOutcome() != RunOutcome.PASSED)
+                        .findFirst();
+                if (blocker.isPresent()) {
+                    resultsById.put(item.requestId(),
+                            skipped(item, "Skipped: dependency " + blocker.get() + " did not pass"));
+                } else {
+                    runnable.add(item);
+                }
+            }
+            runParallel(runnable, parallelism, runStart, saveToHistory)
+                    .forEach(result -> resultsById.put(result.getRequestId(), result));
+        }
+
+        return items.stream().map(item -> resultsById.get(item.requestId())).toList();
+    }
+
+    /**
+     * Groups requests into waves (Kahn's algorithm): each wave only depends on earlier ones.
+     * Validates the whole graph before anything is executed.
+     */
+    private List<List<RunItem>> planWaves(List<RunItem> items, Map<Long, List<Long>> dependsOn) {
+        Map<Long, RunItem> byId = items.stream()
+                .collect(Collectors.toMap(RunItem::requestId, Function.identity(),
+                        (a, b) -> a, LinkedHashMap::new));
+
+        dependsOn.forEach((requestId, deps) -> {
+            if (!byId.containsKey(requestId)) {
+                throw new IllegalArgumentException("Request " + requestId + " is not part of this collection");
+            }
+            for (Long dep : deps) {
+                if (!byId.containsKey(dep)) {
+                    throw new IllegalArgumentException("Dependency " + dep + " of request " + requestId
+                            + " is not part of this collection");
+                }
+            }
+        });
+
+        List<List<RunItem>> waves = new ArrayList<>();
+        Set<Long> scheduled = new HashSet<>();
+        Set<Long> remaining = new LinkedHashSet<>(byId.keySet());
+
+        while (!remaining.isEmpty()) {
+            List<RunItem> wave = remaining.stream()
+                    .filter(id -> scheduled.containsAll(dependsOn.getOrDefault(id, List.of())))
+                    .map(byId::get)
+                    .toList();
+            if (wave.isEmpty()) {
+                throw new IllegalArgumentException("Dependency cycle between requests: " + remaining);
+            }
+            wave.forEach(item -> {
+                scheduled.add(item.requestId());
+                remaining.remove(item.requestId());
+            });
+            waves.add(wave);
+        }
+        return waves;
+    }
+
+    private CompletableFuture<CollectionRunResultDTO> execute(RunItem item, long runStart, boolean saveToHistory) {
+        long startOffsetMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart);
+        return apiExecutorService.executeAndSaveAsync(item.request(), saveToHistory)
+                .thenApply(response -> toResult(item, startOffsetMs, response));
+    }
+
+    private CollectionRunResultDTO toResult(RunItem item, long startOffsetMs, ApiResponseDTO response) {
+        boolean passed = Boolean.TRUE.equals(response.getSuccess())
+                && response.getStatusCode() != null && response.getStatusCode() < 400;
+
+        return CollectionRunResultDTO.builder()
+                .requestId(item.requestId())
+                .name(item.request().getName())
+                .method(item.request().getMethod().name())
+                .url(response.getRequestUrl() != null ? response.getRequestUrl() : item.request().getUrl())
+                .outcome(passed ? RunOutcome.PASSED : RunOutcome.FAILED)
+                .statusCode(response.getStatusCode())
+                .errorMessage(response.getErrorMessage())
+                .startOffsetMs(startOffsetMs)
+                .responseTimeMs(response.getResponseTimeMs())
+                .protocol(response.getProtocol())
+                .connectionReused(response.getConnectionReused())
+                .build();
+    }
+
+    private CollectionRunResultDTO skipped(RunItem item, String reason) {
+        return CollectionRunResultDTO.builder()
+                .requestId(item.requestId())
+                .name(item.request().getName())
+                .method(item.request().getMethod().name())
+                .url(item.request().getUrl())
+                .outcome(RunOutcome.SKIPPED)
+                .errorMessage(reason)
+                .build();
+    }
+
+    private CollectionRunReportDTO buildReport(ApiCollection collection, RunMode mode, int parallelism,
+                                               LocalDateTime startedAt, long totalTimeMs,
+                                               List<CollectionRunResultDTO> results) {
+        Map<RunOutcome, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(CollectionRunResultDTO::getOutcome, Collectors.counting()));
+
+        LongSummaryStatistics timings = results.stream()
+                .map(CollectionRunResultDTO::getResponseTimeMs)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .summaryStatistics();
+        boolean anyTimed = timings.getCount() > 0;
+
+        Map<Boolean, Long> connections = results.stream()
+                .map(CollectionRunResultDTO::getConnectionReused)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        return CollectionRunReportDTO.builder()
+                .collectionId(collection.getId())
+                .collectionName(collection.getName())
+                .mode(mode)
+                .parallelism(parallelism)
+                .startedAt(startedAt)
+                .totalTimeMs(totalTimeMs)
+                .totalRequests(results.size())
+                .passed(counts.getOrDefault(RunOutcome.PASSED, 0L).intValue())
+                .failed(counts.getOrDefault(RunOutcome.FAILED, 0L).intValue())
+                .skipped(counts.getOrDefault(RunOutcome.SKIPPED, 0L).intValue())
+                .minResponseTimeMs(anyTimed ? timings.getMin() : null)
+                .maxResponseTimeMs(anyTimed ? timings.getMax() : null)
+                .avgResponseTimeMs(anyTimed ? timings.getAverage() : null)
+                .connectionsOpened(connections.getOrDefault(false, 0L).intValue())
+                .connectionsReused(connections.getOrDefault(true, 0L).intValue())
+                .results(results)
+                .build();
+    }
+
+    private record RunItem(Long requestId, ExecuteRequestDTO request) {
+    }
+}
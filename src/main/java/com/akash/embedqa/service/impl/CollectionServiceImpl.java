@@ -1,24 +1,39 @@
 package com.akash.embedqa.service.impl;
 
+import com.akash.embedqa.enums.CacheTopic;
 import com.akash.embedqa.exception.ResourceNotFoundException;
 import com.akash.embedqa.model.dtos.request.CollectionDTO;
+import com.akash.embedqa.model.dtos.response.CollectionIndexDTO;
 import com.akash.embedqa.model.dtos.response.CollectionResponseDTO;
 import com.akash.embedqa.model.dtos.response.RequestSummaryDTO;
 import com.akash.embedqa.model.entities.ApiCollection;
 import com.akash.embedqa.model.entities.ApiRequest;
 import com.akash.embedqa.repository.ApiCollectionRepository;
+import com.akash.embedqa.repository.ApiCollectionRepository.CollectionSummaryView;
+import com.akash.embedqa.repository.ApiRequestRepository;
+import com.akash.embedqa.repository.ApiRequestRepository.RequestSummaryView;
+import com.akash.embedqa.service.CacheInvalidationBus;
 import com.akash.embedqa.service.CollectionService;
+import com.akash.embedqa.utils.IdCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
+ * Listings are read through projections: one grouped query for the collections and
+ * their request counts, one for the summaries of their requests. No entities or lazy
+ * associations are loaded.
+ *
  * Author: akash
  * Date: 17/12/25
  */
@@ -28,7 +43,9 @@ import java.util.stream.Collectors;
 public class CollectionServiceImpl implements CollectionService {
 
     private final ApiCollectionRepository collectionRepository;
+    private final ApiRequestRepository requestRepository;
     private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
 
     @Override
     @Transactional
@@ -41,23 +58,29 @@ public class CollectionServiceImpl implements CollectionService {
                 .build();
 
         ApiCollection saved = collectionRepository.save(collection);
+        invalidationBus.publish(CacheTopic.COLLECTION, saved.getId());
         return mapToResponse(saved);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CollectionResponseDTO> getAll() {
-        return collectionRepository.findAll().stream()
-                .map(this::mapToResponse)
+        Map<Long, List<RequestSummaryView>> requestsByCollection =
+                requestRepository.findAllCollectionMemberSummaries().stream()
+                        .collect(Collectors.groupingBy(RequestSummaryView::getCollectionId));
+
+        return collectionRepository.findAllSummaries().stream()
+                .map(collection -> mapToResponse(collection,
+                        requestsByCollection.getOrDefault(collection.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public CollectionResponseDTO getById(Long id) {
-        ApiCollection collection = collectionRepository.findById(id)
+        CollectionSummaryView collection = collectionRepository.findSummaryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Collection", id));
-        return mapToResponse(collection);
+        return mapToResponse(collection, requestRepository.findSummariesByCollectionId(id));
     }
 
     @Override
@@ -72,6 +95,7 @@ public class CollectionServiceImpl implements CollectionService {
         collection.setDescription(dto.getDescription());
 
         ApiCollection saved = collectionRepository.save(collection);
+        invalidationBus.publish(CacheTopic.COLLECTION, id);
         return mapToResponse(saved);
     }
 
@@ -84,6 +108,42 @@ public class CollectionServiceImpl implements CollectionService {
             throw new ResourceNotFoundException("Collection", id);
         }
         collectionRepository.deleteById(id);
+        invalidationBus.publish(CacheTopic.COLLECTION, id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CollectionIndexDTO> getIndex() {
+        return collectionRepository.findIndex().stream()
+                .map(collection -> CollectionIndexDTO.builder()
+                        .id(collection.getId())
+                        .name(collection.getName())
+                        .requestCount(Math.toIntExact(collection.getRequestCount()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<RequestSummaryDTO> getRequestsAfter(Long collectionId, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        long afterId = cursor == null || cursor.isBlank() ? 0L : IdCursor.decode(cursor).id();
+
+        String collectionName = collectionRepository.findNameById(collectionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Collection", collectionId));
+
+        // One extra row tells whether there is a next page without counting
+        List<RequestSummaryView> rows = requestRepository.findSummariesByCollectionIdAfter(
+                collectionId, afterId, PageRequest.ofSize(size + 1));
+        boolean hasNext = rows.size() > size;
+        List<RequestSummaryDTO> content = rows.stream()
+                .limit(size)
+                .map(request -> mapRequestToSummary(request, collectionName))
+                .collect(Collectors.toList());
+
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
     }
 
     private CollectionResponseDTO mapToResponse(ApiCollection collection) {
@@ -101,6 +161,35 @@ public class CollectionServiceImpl implements CollectionService {
                 .build();
     }
 
+    private CollectionResponseDTO mapToResponse(CollectionSummaryView collection, List<RequestSummaryView> members) {
+        List<RequestSummaryDTO> requests = members.stream()
+                .map(request -> mapRequestToSummary(request, collection.getName()))
+                .collect(Collectors.toList());
+
+        return CollectionResponseDTO.builder()
+                .id(collection.getId())
+                .name(collection.getName())
+                .description(collection.getDescription())
+                .requestCount(Math.toIntExact(collection.getRequestCount()))
+                .requests(requests)
+                .subCollections(new ArrayList<>())
+                .build();
+    }
+
+    private RequestSummaryDTO mapRequestToSummary(RequestSummaryView request, String collectionName) {
+        return RequestSummaryDTO.builder()
+                .id(request.getId())
+                .name(request.getName())
+                .url(request.getUrl())
+                .method(request.getMethod())
+                .description(request.getDescription())
+                .collectionId(request.getCollectionId())
+                .collectionName(collectionName)
+                .createdAt(request.getCreatedAt())
+                .updatedAt(request.getUpdatedAt())
+                .build();
+    }
+
     private RequestSummaryDTO mapRequestToSummary(ApiRequest request) {
         return RequestSummaryDTO.builder()
                 .id(request.getId())
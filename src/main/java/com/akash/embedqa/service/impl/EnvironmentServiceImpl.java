@@ -1,35 +1,74 @@
 package com.akash.embedqa.service.impl;
 
+import com.akash.embedqa.enums.CacheTopic;
 import com.akash.embedqa.exception.ResourceNotFoundException;
 import com.akash.embedqa.model.dtos.request.EnvironmentDTO;
 import com.akash.embedqa.model.dtos.request.EnvironmentVariableDTO;
 import com.akash.embedqa.model.dtos.response.EnvironmentResponseDTO;
 import com.akash.embedqa.model.entities.Environment;
 import com.akash.embedqa.repository.EnvironmentRepository;
+import com.akash.embedqa.service.CacheInvalidationBus;
 import com.akash.embedqa.service.EnvironmentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
+ * Enabled variables are cached per environment as immutable maps tagged with the
+ * row version, so repeated executions (collection runs, load tests) load an
+ * environment once. Updates replace the cached map and deletes evict it once the
+ * transaction has committed; other instances hear of both through the
+ * {@link CacheInvalidationBus} and evict their copy.
+ *
  * Author: akash
  * Date: 17/12/25
  */
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EnvironmentServiceImpl implements EnvironmentService {
 
     private final EnvironmentRepository environmentRepository;
     private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Cache<Long, CachedVariables> variablesCache;
+
+    public EnvironmentServiceImpl(
+            EnvironmentRepository environmentRepository,
+            ObjectMapper objectMapper,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${embedqa.environments.variables-cache.max-size:1000}") long cacheMaxSize,
+            @Value("${embedqa.environments.variables-cache.ttl:10m}") Duration cacheTtl) {
+        this.environmentRepository = environmentRepository;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+
+        this.variablesCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, variablesCache, "embedqa.environments.variables");
+
+        invalidationBus.subscribe(CacheTopic.ENVIRONMENT,
+                CacheInvalidationBus.Listener.of(variablesCache::invalidate, variablesCache::invalidateAll));
+    }
 
     @Override
     @Transactional
@@ -58,7 +97,14 @@ public class EnvironmentServiceImpl implements EnvironmentService {
         environment.setDescription(dto.getDescription());
         environment.setVariablesJson(dto.getVariables());
 
-        Environment saved = environmentRepository.save(environment);
+        // Flush so the saved entity carries its new version
+        Environment saved = environmentRepository.saveAndFlush(environment);
+
+        CachedVariables updated = toCachedVariables(saved);
+        afterCommit(() -> variablesCache.asMap().merge(id, updated,
+                (cached, fresh) -> fresh.version() >= cached.version() ? fresh : cached));
+        invalidationBus.publish(CacheTopic.ENVIRONMENT, id);
+
         return mapToResponse(saved);
     }
 
@@ -87,31 +133,55 @@ public class EnvironmentServiceImpl implements EnvironmentService {
             throw new ResourceNotFoundException("Environment", id);
         }
         environmentRepository.deleteById(id);
+        afterCommit(() -> variablesCache.invalidate(id));
+        invalidationBus.publish(CacheTopic.ENVIRONMENT, id);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Map<String, String> getVariablesAsMap(Long environmentId) {
         if (environmentId == null) {
             return Collections.emptyMap();
         }
 
-        Environment environment = environmentRepository.findById(environmentId)
-                .orElse(null);
+        // Unknown environments are not cached
+        CachedVariables cached = variablesCache.get(environmentId, this::loadVariables);
+        return cached != null ? cached.variables() : Collections.emptyMap();
+    }
 
-        if (environment == null || environment.getVariablesJson() == null) {
-            return Collections.emptyMap();
-        }
+    private CachedVariables loadVariables(Long environmentId) {
+        return environmentRepository.findById(environmentId)
+                .map(this::toCachedVariables)
+                .orElse(null);
+    }
 
+    private CachedVariables toCachedVariables(Environment environment) {
         List<EnvironmentVariableDTO> variables = environment.getVariablesJson();
+        if (variables == null) {
+            return new CachedVariables(environment.getVersion(), Collections.emptyMap());
+        }
 
-        return variables.stream()
+        Map<String, String> enabled = variables.stream()
                 .filter(v -> Boolean.TRUE.equals(v.getEnabled()))
                 .collect(Collectors.toMap(
                         EnvironmentVariableDTO::getName,
                         v -> v.getValue() != null ? v.getValue() : "",
                         (v1, v2) -> v2  // Keep last value if duplicate keys
                 ));
+        return new CachedVariables(environment.getVersion(), Collections.unmodifiableMap(enabled));
+    }
+
+    // Cache changes wait for the commit, so no one sees a version that may still roll back
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private EnvironmentResponseDTO mapToResponse(Environment environment) {
@@ -125,4 +195,7 @@ public class EnvironmentServiceImpl implements EnvironmentService {
                 .updatedAt(environment.getUpdatedAt())
                 .build();
     }
+
+    private record CachedVariables(long version, Map<String, String> variables) {
+    }
 }
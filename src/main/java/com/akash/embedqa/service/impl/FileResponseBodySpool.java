@@ -0,0 +1,145 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.service.ResponseBodySpool;
+import com.akash.embedqa.utils.ResponseBodyCapture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the first {@code capture-limit} bytes of each response body in memory and,
+ * with {@code spill-enabled}, writes longer bodies in full to {@code spill-dir}.
+ * Spilled bodies are deleted {@code spill-ttl} after they were written.
+ *
+ * Streams are read through a small pool of reusable buffers, so a large download
+ * costs one buffer plus the capped head, not the body size.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+public class FileResponseBodySpool implements ResponseBodySpool {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int POOLED_BUFFERS = 32;
+
+    private final int captureLimit;
+    private final Path spillDir;
+    private final Duration spillTtl;
+
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+    private final Counter truncatedCounter;
+
+    public FileResponseBodySpool(
+            MeterRegistry meterRegistry,
+            @Value("${embedqa.http.response.capture-limit:1MB}") DataSize captureLimit,
+            @Value("${embedqa.http.response.spill-enabled:false}") boolean spillEnabled,
+            @Value("${embedqa.http.response.spill-dir:${java.io.tmpdir}/embedqa-response-bodies}") Path spillDir,
+            @Value("${embedqa.http.response.spill-ttl:1h}") Duration spillTtl) {
+        this.captureLimit = (int) Math.min(Integer.MAX_VALUE - 8, captureLimit.toBytes());
+        this.spillDir = spillEnabled ? spillDir : null;
+        this.spillTtl = spillTtl;
+
+        this.truncatedCounter = Counter.builder("embedqa.http.response.truncated")
+                .description("Response bodies longer than the capture limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ResponseBodyCapture newCapture() {
+        return new ResponseBodyCapture(captureLimit, spillDir, this::record);
+    }
+
+    @Override
+    public ResponseBodyCapture.Captured capture(InputStream body) throws IOException {
+        ResponseBodyCapture capture = newCapture();
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        try {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                capture.write(buffer, 0, read);
+            }
+            return capture.finish();
+        } finally {
+            capture.abort();
+            buffers.offer(buffer);
+        }
+    }
+
+    private void record(ResponseBodyCapture.Captured captured) {
+        if (captured.truncated()) {
+            truncatedCounter.increment();
+        }
+    }
+
+    @Override
+    public Optional<Path> find(String spoolId) {
+        if (spillDir == null) {
+            return Optional.empty();
+        }
+        try {
+            // Also keeps the id from naming anything outside the spill directory
+            UUID.fromString(spoolId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid response body id: " + spoolId);
+        }
+        Path file = spillDir.resolve(spoolId + ResponseBodyCapture.BODY_SUFFIX);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${embedqa.http.response.spill-cleanup-ms:60000}")
+    public void deleteExpired() {
+        if (spillDir == null || !Files.isDirectory(spillDir)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(spillTtl);
+        List<Path> expired;
+        try (Stream<Path> files = Files.list(spillDir)) {
+            expired = files.filter(file -> isExpired(file, cutoff)).toList();
+        } catch (IOException e) {
+            log.error("Failed to list response body spill directory {}: {}", spillDir, e.getMessage());
+            return;
+        }
+
+        for (Path file : expired) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete spilled response body {}: {}", file, e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.debug("Deleted {} expired response bodies", expired.size());
+        }
+    }
+
+    // Unfinished .part files of aborted exchanges expire the same way
+    private static boolean isExpired(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.model.entities.HistoryBody;
+import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.repository.HistoryBodyRepository;
+import com.akash.embedqa.service.HistoryBodyStore;
+import com.akash.embedqa.utils.BodyFormatter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores history payloads gzip-compressed and deduplicated by SHA-256 in history_bodies.
+ *
+ * A batch is hashed first; hashes already stored only get their reference count
+ * raised, so repeated payloads (health checks, identical headers) are neither
+ * compressed nor sent again. Payloads below {@code compress-min-bytes}, and those
+ * that do not shrink, are kept as-is ({@code identity}).
+ *
+ * {@code embedqa.history.bodies.dedup.ratio} reports references per stored payload
+ * since startup.
+ *
+ * Pretty-printed payloads are kept in a cache bounded by {@code format-cache-size}
+ * (string bytes). Payloads are never rewritten under the same id, so entries only
+ * ever leave the cache by eviction.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+public class HistoryBodyStoreImpl implements HistoryBodyStore {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final HistoryBodyRepository bodyRepository;
+    private final int compressMinBytes;
+
+    private final Counter storedCounter;
+    private final Counter referencedCounter;
+
+    private final Cache<FormattedKey, String> formattedCache;
+
+    public HistoryBodyStoreImpl(
+            HistoryBodyRepository bodyRepository,
+            MeterRegistry meterRegistry,
+            @Value("${embedqa.history.bodies.compress-min-bytes:1024}") int compressMinBytes,
+            @Value("${embedqa.history.bodies.format-cache-size:64MB}") DataSize formatCacheSize) {
+        this.bodyRepository = bodyRepository;
+        this.compressMinBytes = compressMinBytes;
+
+        this.formattedCache = Caffeine.newBuilder()
+                .maximumWeight(formatCacheSize.toBytes())
+                // Two bytes per char, as held on the heap
+                .<FormattedKey, String>weigher((key, body) -> (int) Math.min(Integer.MAX_VALUE, 2L * body.length()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, formattedCache, "embedqa.history.bodies.formatted");
+
+        this.storedCounter = Counter.builder("embedqa.history.bodies.stored")
+                .description("Distinct history payloads written to the body store")
+                .register(meterRegistry);
+        this.referencedCounter = Counter.builder("embedqa.history.bodies.referenced")
+                .description("History payload references, including repeats of stored payloads")
+                .register(meterRegistry);
+        Gauge.builder("embedqa.history.bodies.dedup.ratio", this,
+                        store -> store.referencedCounter.count() / Math.max(1.0, store.storedCounter.count()))
+                .description("History payload references per stored payload")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void storeBodies(List<RequestHistory> histories) {
+        // Hash -> raw payload, and hash -> references from this batch
+        Map<String, byte[]> payloads = new HashMap<>();
+        Map<String, Long> references = new HashMap<>();
+        List<PayloadKeys> keys = new ArrayList<>(histories.size());
+
+        for (RequestHistory history : histories) {
+            keys.add(new PayloadKeys(
+                    add(history.getRequestBody(), payloads, references),
+                    add(history.getResponseBody(), payloads, references),
+                    add(history.getResponseHeaders(), payloads, references)));
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> ids = new HashMap<>(bodyRepository.addReferences(references));
+        List<HistoryBody> newBodies = payloads.entrySet().stream()
+                .filter(entry -> !ids.containsKey(entry.getKey()))
+                .map(entry -> encode(entry.getKey(), entry.getValue(), references.get(entry.getKey())))
+                .toList();
+        ids.putAll(bodyRepository.insertOrAddReferences(newBodies));
+
+        storedCounter.increment(newBodies.size());
+        referencedCounter.increment(references.values().stream().mapToLong(Long::longValue).sum());
+
+        for (int i = 0; i < histories.size(); i++) {
+            RequestHistory history = histories.get(i);
+            PayloadKeys key = keys.get(i);
+            String request = key.requestBody();
+            String response = key.responseBody();
+            history.setRequestBodyId(request != null ? ids.get(request) : null);
+            history.setRequestBodySize(request != null ? (long) payloads.get(request).length : null);
+            history.setRequestBodySha256(request != null ? HEX.parseHex(request) : null);
+            history.setResponseBodyId(response != null ? ids.get(response) : null);
+            history.setResponseBodySize(response != null ? (long) payloads.get(response).length : null);
+            history.setResponseBodySha256(response != null ? HEX.parseHex(response) : null);
+            history.setResponseHeadersId(key.responseHeaders() != null ? ids.get(key.responseHeaders()) : null);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String load(Long bodyId) {
+        if (bodyId == null) {
+            return null;
+        }
+        return bodyRepository.findById(bodyId)
+                .map(HistoryBodyStoreImpl::decode)
+                .orElseGet(() -> {
+                    log.warn("History body {} not found", bodyId);
+                    return null;
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String loadFormatted(Long bodyId, String contentType) {
+        if (bodyId == null) {
+            return null;
+        }
+        return formattedCache.get(new FormattedKey(bodyId, contentType),
+                key -> BodyFormatter.format(load(key.bodyId()), key.contentType()));
+    }
+
+    @Override
+    @Transactional
+    public void release(Collection<Long> bodyIds) {
+        if (!bodyIds.isEmpty()) {
+            bodyRepository.release(bodyIds);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int deleteOrphans() {
+        return bodyRepository.deleteOrphans();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll() {
+        bodyRepository.deleteAllBodies();
+    }
+
+    /**
+     * Registers one reference to the payload and returns its hash key, or null if there is none.
+     */
+    private static String add(String payload, Map<String, byte[]> payloads, Map<String, Long> references) {
+        if (payload == null) {
+            return null;
+        }
+        byte[] raw = payload.getBytes(StandardCharsets.UTF_8);
+        String key = HEX.formatHex(sha256(raw));
+        payloads.putIfAbsent(key, raw);
+        references.merge(key, 1L, Long::sum);
+        return key;
+    }
+
+    private HistoryBody encode(String key, byte[] raw, long references) {
+        String encoding = HistoryBody.IDENTITY;
+        byte[] content = raw;
+        if (raw.length >= compressMinBytes) {
+            byte[] compressed = gzip(raw);
+            if (compressed.length < raw.length) {
+                encoding = HistoryBody.GZIP;
+                content = compressed;
+            }
+        }
+
+        return HistoryBody.builder()
+                .sha256(HEX.parseHex(key))
+                .encoding(encoding)
+                .size((long) raw.length)
+                .content(content)
+                .refCount(references)
+                .build();
+    }
+
+    private static String decode(HistoryBody body) {
+        byte[] raw = HistoryBody.GZIP.equals(body.getEncoding()) ? gunzip(body.getContent()) : body.getContent();
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] content) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] sha256(byte[] raw) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(raw);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Hash keys of one entry's payloads; null where the entry has none.
+     */
+    private record PayloadKeys(String requestBody, String responseBody, String responseHeaders) {}
+
+    private record FormattedKey(Long bodyId, String contentType) {}
+}
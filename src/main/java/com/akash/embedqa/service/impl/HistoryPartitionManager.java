@@ -0,0 +1,67 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.repository.RequestHistoryRepository;
+import com.akash.embedqa.service.HistoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the daily request_history partitions (see V6 migration) ahead of the clock
+ * and applies the retention period, if one is configured.
+ *
+ * Runs at startup and then on {@code embedqa.history.partitions.cron}. Entries for a
+ * day without a partition land in the default partition and are moved out the next
+ * time that day's partition is created.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Component
+public class HistoryPartitionManager {
+
+    private final RequestHistoryRepository historyRepository;
+    private final HistoryService historyService;
+    private final int precreateDays;
+    private final int retentionDays;
+
+    public HistoryPartitionManager(
+            RequestHistoryRepository historyRepository,
+            HistoryService historyService,
+            @Value("${embedqa.history.partitions.precreate-days:7}") int precreateDays,
+            @Value("${embedqa.history.retention-days:0}") int retentionDays) {
+        this.historyRepository = historyRepository;
+        this.historyService = historyService;
+        this.precreateDays = precreateDays;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${embedqa.history.partitions.cron:0 5 0 * * *}")
+    public void maintain() {
+        try {
+            LocalDate today = LocalDate.now();
+            // Yesterday too, in case the database and JVM clocks disagree around midnight
+            int created = historyRepository.ensurePartitions(today.minusDays(1), today.plusDays(precreateDays));
+            if (created > 0) {
+                log.info("Created {} request_history partitions", created);
+            }
+
+            if (retentionDays > 0) {
+                historyService.deleteOlderThan(retentionDays);
+            }
+        } catch (Exception e) {
+            log.error("History partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+}
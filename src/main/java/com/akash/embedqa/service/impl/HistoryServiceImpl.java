@@ -1,27 +1,40 @@
 package com.akash.embedqa.service.impl;
 
+import com.akash.embedqa.constant.AppConstant;
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.enums.RollupInterval;
 import com.akash.embedqa.exception.ResourceNotFoundException;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
 import com.akash.embedqa.model.dtos.response.HistoryRequestDetailDTO;
 import com.akash.embedqa.model.dtos.response.HistoryResponseDTO;
 import com.akash.embedqa.model.dtos.response.HistoryResponseDetailDTO;
+import com.akash.embedqa.model.dtos.response.HistoryTimeSeriesPointDTO;
 import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.repository.HistoryRollupRepository;
 import com.akash.embedqa.repository.RequestHistoryRepository;
+import com.akash.embedqa.repository.RequestHistoryRepositoryCustom;
+import com.akash.embedqa.service.HistoryBodyStore;
 import com.akash.embedqa.service.HistoryService;
+import com.akash.embedqa.utils.HistoryCursor;
+import com.akash.embedqa.utils.LatencySketch;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Implementation of HistoryService for managing API request history.
@@ -34,14 +47,32 @@ import java.util.*;
 @RequiredArgsConstructor
 public class HistoryServiceImpl implements HistoryService {
 
+    // Longest time series served in one call
+    private static final int MAX_TIME_SERIES_BUCKETS = 10_080;
+
     private final RequestHistoryRepository historyRepository;
+    private final HistoryRollupRepository rollupRepository;
+    private final HistoryBodyStore bodyStore;
     private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
     public RequestHistory saveHistory(RequestHistory history) {
         log.debug("Saving history entry for URL: {}", history.getUrl());
-        return historyRepository.save(history);
+        bodyStore.storeBodies(List.of(history));
+        RequestHistory saved = historyRepository.save(history);
+        rollupRepository.record(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<RequestHistory> saveAll(List<RequestHistory> histories) {
+        log.debug("Saving {} history entries", histories.size());
+        bodyStore.storeBodies(histories);
+        List<RequestHistory> saved = historyRepository.saveAll(histories);
+        rollupRepository.record(saved);
+        return saved;
     }
 
     @Override
@@ -57,10 +88,30 @@ public class HistoryServiceImpl implements HistoryService {
         log.debug("Fetching history with filters - method: {}, statusCode: {}, search: {}",
                 method, statusCode, search);
 
-        Specification<RequestHistory> spec = buildSpecification(method, statusCode, search, fromDate, toDate);
-        Page<RequestHistory> historyPage = historyRepository.findAll(spec, pageable);
+        HistoryFilterDTO filter = new HistoryFilterDTO(method, statusCode, search, fromDate, toDate);
+        return historyRepository.findSummaries(filter, pageable).map(this::mapToSummaryDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<HistoryResponseDTO> getHistoryAfter(HistoryFilterDTO filter, String cursor, int size) {
+        log.debug("Fetching history after cursor {} with filter: {}", cursor, filter);
 
-        return historyPage.map(this::mapToSummaryDTO);
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        HistoryCursor after = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+
+        // One extra row tells whether there is a next page without counting
+        List<RequestHistoryRepositoryCustom.HistorySummary> rows =
+                historyRepository.findSummariesAfter(filter, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<HistoryResponseDTO> content = rows.stream()
+                .limit(size)
+                .map(this::mapToSummaryDTO)
+                .toList();
+
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
     }
 
     @Override
@@ -74,15 +125,38 @@ public class HistoryServiceImpl implements HistoryService {
         return mapToDetailDTO(history);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getResponseBody(Long id, BodyFormat format) {
+        RequestHistory history = historyRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("History entry", id));
+
+        if (format != BodyFormat.PRETTY) {
+            return bodyStore.load(history.getResponseBodyId());
+        }
+
+        String contentType = parseJsonToMap(bodyStore.load(history.getResponseHeadersId())).entrySet().stream()
+                .filter(header -> AppConstant.CONTENT_TYPE.equalsIgnoreCase(header.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+        return bodyStore.loadFormatted(history.getResponseBodyId(), contentType);
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
         log.debug("Deleting history entry: {}", id);
 
-        if (!historyRepository.existsById(id)) {
-            throw new ResourceNotFoundException("History entry", id);
-        }
-        historyRepository.deleteById(id);
+        RequestHistory history = historyRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("History entry", id));
+        historyRepository.delete(history);
+        // Stats are served from the rollups, which must stop counting the entry too
+        rollupRepository.remove(history);
+        bodyStore.release(Stream.of(history.getRequestBodyId(), history.getResponseBodyId(),
+                        history.getResponseHeadersId())
+                .filter(Objects::nonNull)
+                .toList());
     }
 
     @Override
@@ -90,105 +164,192 @@ public class HistoryServiceImpl implements HistoryService {
     public void clearAll() {
         log.info("Clearing all history entries");
         historyRepository.deleteAllHistory();
+        bodyStore.deleteAll();
+        rollupRepository.deleteAll();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public HistoryStats getStats() {
-        log.debug("Calculating history statistics");
+    public HistoryStats getStats(HistoryFilterDTO filter) {
+        log.debug("Calculating history statistics with filter: {}", filter);
 
-        List<RequestHistory> allHistory = historyRepository.findAll();
+        return canUseRollups(filter) ? statsFromRollups(filter) : statsFromHistory(filter);
+    }
 
-        if (allHistory.isEmpty()) {
-            return new HistoryStats(0L, 0L, 0L, 0.0, Collections.emptyMap());
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoryTimeSeriesPointDTO> getTimeSeries(RollupInterval interval, LocalDateTime fromDate,
+                                                         LocalDateTime toDate, HttpMethod method, String host) {
+        Duration step = interval.getDuration();
+        LocalDateTime to = toDate != null
+                ? ceil(toDate, interval)
+                : ceil(LocalDateTime.now(), interval);
+        LocalDateTime from = fromDate != null
+                ? fromDate.truncatedTo(interval.getUnit())
+                : to.minus(interval == RollupInterval.MINUTE ? Duration.ofHours(1) : Duration.ofDays(1));
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("fromDate must be before toDate");
+        }
+        if (Duration.between(from, to).dividedBy(step) > MAX_TIME_SERIES_BUCKETS) {
+            throw new IllegalArgumentException(String.format(
+                    "Time range spans more than %d %s buckets", MAX_TIME_SERIES_BUCKETS, interval));
         }
 
-        long totalRequests = allHistory.size();
-        long successCount = allHistory.stream()
-                .filter(h -> h.getStatusCode() != null && h.getStatusCode() >= 200 && h.getStatusCode() < 400)
-                .count();
-        long errorCount = allHistory.stream()
-                .filter(h -> h.getStatusCode() != null && h.getStatusCode() >= 400)
-                .count();
+        Map<LocalDateTime, HistoryRollupRepository.RollupBucket> buckets = new HashMap<>();
+        for (HistoryRollupRepository.RollupBucket bucket : rollupRepository.timeSeries(
+                interval, from, to, method != null ? method.name() : null, host)) {
+            buckets.put(bucket.bucketStart(), bucket);
+        }
 
-        double avgResponseTime = allHistory.stream()
-                .filter(h -> h.getResponseTime() != null)
-                .mapToLong(RequestHistory::getResponseTime)
-                .average()
-                .orElse(0.0);
+        // Empty buckets are returned as zero points so charts have a continuous axis
+        List<HistoryTimeSeriesPointDTO> points = new ArrayList<>();
+        for (LocalDateTime start = from; start.isBefore(to); start = start.plus(step)) {
+            HistoryRollupRepository.RollupBucket bucket = buckets.get(start);
+            points.add(bucket == null
+                    ? new HistoryTimeSeriesPointDTO(start, 0L, 0L, null, null, null, null, null, null)
+                    : new HistoryTimeSeriesPointDTO(
+                            start,
+                            bucket.requestCount(),
+                            bucket.errorCount(),
+                            (double) bucket.sumMs() / bucket.requestCount(),
+                            bucket.minMs(),
+                            bucket.maxMs(),
+                            LatencySketch.percentile(bucket.sketch(), 50),
+                            LatencySketch.percentile(bucket.sketch(), 95),
+                            LatencySketch.percentile(bucket.sketch(), 99)));
+        }
+        return points;
+    }
+
+    /**
+     * Rollups hold no URL path or exact status code, and only whole buckets.
+     * Anything finer goes to the raw table.
+     */
+    private boolean canUseRollups(HistoryFilterDTO filter) {
+        Integer statusCode = filter.statusCode();
+        return (filter.search() == null || filter.search().isBlank())
+                && (statusCode == null || statusCode == 200 || statusCode >= 400)
+                && isAligned(filter.fromDate(), RollupInterval.MINUTE)
+                && isAligned(filter.toDate(), RollupInterval.MINUTE);
+    }
 
+    /**
+     * O(buckets): hour rollups when both bounds fall on the hour, minute rollups
+     * otherwise. The range covers [fromDate, toDate) in whole buckets; percentiles
+     * are sketch estimates.
+     */
+    private HistoryStats statsFromRollups(HistoryFilterDTO filter) {
+        RollupInterval interval = isAligned(filter.fromDate(), RollupInterval.HOUR)
+                && isAligned(filter.toDate(), RollupInterval.HOUR)
+                ? RollupInterval.HOUR
+                : RollupInterval.MINUTE;
+
+        Integer minStatusClass = null;
+        Integer maxStatusClass = null;
+        if (filter.statusCode() != null) {
+            boolean success = filter.statusCode() == 200;
+            minStatusClass = success ? 2 : 4;
+            maxStatusClass = success ? 3 : null;
+        }
+
+        List<HistoryRollupRepository.RollupGroup> groups = rollupRepository.summarize(
+                interval, filter.fromDate(), filter.toDate(),
+                filter.method() != null ? filter.method().name() : null,
+                minStatusClass, maxStatusClass);
+
+        long total = 0;
+        long success = 0;
+        long errors = 0;
+        long sumMs = 0;
+        long[] sketch = LatencySketch.empty();
         Map<String, Long> methodBreakdown = new HashMap<>();
-        for (RequestHistory history : allHistory) {
-            if (history.getMethod() != null) {
-                String methodName = history.getMethod().name();
-                methodBreakdown.merge(methodName, 1L, Long::sum);
+        for (HistoryRollupRepository.RollupGroup group : groups) {
+            total += group.requestCount();
+            sumMs += group.sumMs();
+            if (group.statusClass() == 2 || group.statusClass() == 3) {
+                success += group.requestCount();
+            } else if (group.statusClass() >= 4) {
+                errors += group.requestCount();
             }
+            methodBreakdown.merge(group.method(), group.requestCount(), Long::sum);
+            LatencySketch.merge(sketch, group.sketch());
+        }
+
+        if (total == 0) {
+            return new HistoryStats(0L, 0L, 0L, 0.0, 0.0, 0.0, 0.0, Collections.emptyMap());
+        }
+        return new HistoryStats(total, success, errors, (double) sumMs / total,
+                orZero(LatencySketch.percentile(sketch, 50)),
+                orZero(LatencySketch.percentile(sketch, 95)),
+                orZero(LatencySketch.percentile(sketch, 99)),
+                methodBreakdown);
+    }
+
+    private HistoryStats statsFromHistory(HistoryFilterDTO filter) {
+        // Aggregated in the database; rows (and their bodies) are never loaded
+        RequestHistoryRepositoryCustom.StatsAggregate aggregate = historyRepository.aggregateStats(filter);
+        if (aggregate.totalRequests() == 0) {
+            return new HistoryStats(0L, 0L, 0L, 0.0, 0.0, 0.0, 0.0, Collections.emptyMap());
         }
 
-        return new HistoryStats(totalRequests, successCount, errorCount, avgResponseTime, methodBreakdown);
+        Map<String, Long> methodBreakdown = historyRepository.countByMethod(filter);
+
+        return new HistoryStats(
+                aggregate.totalRequests(),
+                aggregate.successCount(),
+                aggregate.errorCount(),
+                orZero(aggregate.avgResponseTime()),
+                orZero(aggregate.p50ResponseTime()),
+                orZero(aggregate.p95ResponseTime()),
+                orZero(aggregate.p99ResponseTime()),
+                methodBreakdown
+        );
     }
 
+    private static boolean isAligned(LocalDateTime time, RollupInterval interval) {
+        return time == null || time.equals(time.truncatedTo(interval.getUnit()));
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, RollupInterval interval) {
+        LocalDateTime floor = time.truncatedTo(interval.getUnit());
+        return floor.equals(time) ? floor : floor.plus(interval.getDuration());
+    }
+
+    /**
+     * Whole days before the cutoff are removed by dropping their partitions; only the
+     * cutoff day and the default partition are deleted row by row. Each step commits
+     * on its own so the partition lock is not held while rows are deleted.
+     */
     @Override
-    @Transactional
     public void deleteOlderThan(int days) {
         log.info("Deleting history entries older than {} days", days);
 
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
+        int dropped = historyRepository.dropPartitionsBefore(cutoffDate.toLocalDate());
         historyRepository.deleteOlderThan(cutoffDate);
+        rollupRepository.deleteBefore(cutoffDate);
+        int orphans = bodyStore.deleteOrphans();
+        log.info("Dropped {} history partitions and {} orphaned bodies", dropped, orphans);
     }
 
-    private Specification<RequestHistory> buildSpecification(
-            HttpMethod method,
-            Integer statusCode,
-            String search,
-            LocalDateTime fromDate,
-            LocalDateTime toDate
-    ) {
-        return (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            // Filter by HTTP method
-            if (method != null) {
-                predicates.add(criteriaBuilder.equal(root.get("method"), method));
-            }
-
-            // Filter by status code
-            // Frontend sends 200 for success (< 400) and 400 for errors (>= 400)
-            if (statusCode != null) {
-                if (statusCode == 200) {
-                    // Success: status codes 200-399
-                    predicates.add(criteriaBuilder.and(
-                            criteriaBuilder.greaterThanOrEqualTo(root.get("statusCode"), 200),
-                            criteriaBuilder.lessThan(root.get("statusCode"), 400)
-                    ));
-                } else if (statusCode >= 400) {
-                    // Errors: status codes >= 400
-                    predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("statusCode"), 400));
-                } else {
-                    // Exact match for other cases
-                    predicates.add(criteriaBuilder.equal(root.get("statusCode"), statusCode));
-                }
-            }
-
-            // Search in URL
-            if (search != null && !search.isBlank()) {
-                String searchPattern = "%" + search.toLowerCase() + "%";
-                predicates.add(criteriaBuilder.like(
-                        criteriaBuilder.lower(root.get("url")),
-                        searchPattern
-                ));
-            }
-
-            // Filter by date range
-            if (fromDate != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("executedAt"), fromDate));
-            }
-            if (toDate != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("executedAt"), toDate));
-            }
+    private static Double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
 
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+    private HistoryResponseDTO mapToSummaryDTO(RequestHistoryRepositoryCustom.HistorySummary summary) {
+        return HistoryResponseDTO.builder()
+                .id(summary.id())
+                .url(summary.url())
+                .method(summary.method())
+                .statusCode(summary.statusCode())
+                .statusText(summary.statusText())
+                .responseTime(summary.responseTime())
+                .responseSize(summary.responseSize())
+                .executedAt(summary.executedAt())
+                .requestName(summary.requestName())
+                .collectionName(summary.collectionName())
+                .build();
     }
 
     private HistoryResponseDTO mapToSummaryDTO(RequestHistory history) {
@@ -231,7 +392,7 @@ public class HistoryServiceImpl implements HistoryService {
                 .method(history.getMethod())
                 .headers(parseJsonToMap(history.getRequestHeaders()))
                 .queryParams(parseJsonToMap(history.getQueryParams()))
-                .body(history.getRequestBody())
+                .body(bodyStore.load(history.getRequestBodyId()))
                 .bodyType(history.getBodyType())
                 .authType(history.getAuthType())
                 .authConfig(parseJsonToMap(history.getAuthConfig()))
@@ -241,9 +402,14 @@ public class HistoryServiceImpl implements HistoryService {
         HistoryResponseDetailDTO responseDetail = HistoryResponseDetailDTO.builder()
                 .statusCode(history.getStatusCode())
                 .statusText(history.getStatusText())
-                .headers(parseJsonToMap(history.getResponseHeaders()))
-                .body(history.getResponseBody())
+                .headers(parseJsonToMap(bodyStore.load(history.getResponseHeadersId())))
+                .body(bodyStore.load(history.getResponseBodyId()))
                 .responseTime(history.getResponseTime())
+                .dnsLookupTime(history.getDnsLookupTime())
+                .connectionTime(history.getConnectionTime())
+                .tlsHandshakeTime(history.getTlsHandshakeTime())
+                .firstByteTime(history.getFirstByteTime())
+                .downloadTime(history.getDownloadTime())
                 .responseSize(history.getResponseSize())
                 .build();
 
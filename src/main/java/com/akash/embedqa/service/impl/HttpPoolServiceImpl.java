@@ -0,0 +1,75 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.config.HttpClientRegistry;
+import com.akash.embedqa.model.dtos.request.HttpPoolLimitsDTO;
+import com.akash.embedqa.model.dtos.response.HttpPoolStatsDTO;
+import com.akash.embedqa.service.HttpPoolService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reports and changes the limits of the execution connection pools.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HttpPoolServiceImpl implements HttpPoolService {
+
+    private final HttpClientRegistry httpClientRegistry;
+
+    @Override
+    public List<HttpPoolStatsDTO> getPools() {
+        return httpClientRegistry.pools().entrySet().stream()
+                .map(pool -> toDto(pool.getKey(), pool.getValue()))
+                .toList();
+    }
+
+    @Override
+    public List<HttpPoolStatsDTO> resize(HttpPoolLimitsDTO limits) {
+        if (limits.getMaxTotal() == null && limits.getMaxPerRoute() == null) {
+            throw new IllegalArgumentException("At least one of maxTotal or maxPerRoute is required");
+        }
+        httpClientRegistry.resize(limits.getMaxTotal(), limits.getMaxPerRoute());
+        log.info("Resized HTTP pools: maxTotal={}, maxPerRoute={}",
+                httpClientRegistry.maxTotal(), httpClientRegistry.maxPerRoute());
+        return getPools();
+    }
+
+    private HttpPoolStatsDTO toDto(String name, ConnPoolControl<HttpRoute> control) {
+        PoolStats total = control.getTotalStats();
+        List<HttpPoolStatsDTO.RouteStats> routes = control.getRoutes().stream()
+                .map(route -> toRouteStats(route, control.getStats(route)))
+                .sorted(Comparator.comparing(HttpPoolStatsDTO.RouteStats::getRoute))
+                .toList();
+
+        return HttpPoolStatsDTO.builder()
+                .pool(name)
+                .maxTotal(control.getMaxTotal())
+                .maxPerRoute(control.getDefaultMaxPerRoute())
+                .leased(total.getLeased())
+                .available(total.getAvailable())
+                .pending(total.getPending())
+                .routes(routes)
+                .build();
+    }
+
+    private HttpPoolStatsDTO.RouteStats toRouteStats(HttpRoute route, PoolStats stats) {
+        return HttpPoolStatsDTO.RouteStats.builder()
+                .route(route.getTargetHost().toURI())
+                .max(stats.getMax())
+                .leased(stats.getLeased())
+                .available(stats.getAvailable())
+                .pending(stats.getPending())
+                .build();
+    }
+}
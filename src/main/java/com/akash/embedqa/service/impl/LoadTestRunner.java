@@ -0,0 +1,262 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.model.dtos.request.LoadTestDTO;
+import com.akash.embedqa.model.dtos.response.LoadTestSnapshotDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Drives one load test through the pooled client and reports once per second.
+ *
+ * Every request runs on its own virtual thread. Samples go into an HdrHistogram
+ * {@link Recorder} and a few counters only; nothing is written to history.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+final class LoadTestRunner {
+
+    // Open model: arrivals beyond this many outstanding requests are dropped, not queued
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final CloseableHttpClient httpClient;
+    private final ClassicHttpRequest template;
+    private final RequestConfig requestConfig;
+    private final LoadTestDTO options;
+    private final Consumer<LoadTestSnapshotDTO> listener;
+
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder[] statusCounts = new LongAdder[STATUS_CLASSES.length];
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile boolean stopped;
+
+    LoadTestRunner(CloseableHttpClient httpClient, ClassicHttpRequest template, RequestConfig requestConfig,
+                   LoadTestDTO options, Consumer<LoadTestSnapshotDTO> listener) {
+        this.httpClient = httpClient;
+        this.template = template;
+        this.requestConfig = requestConfig;
+        this.options = options;
+        this.listener = listener;
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Blocks for the duration of the test plus the time needed for in-flight
+     * requests to finish, then returns the whole-run summary.
+     */
+    LoadTestSnapshotDTO run() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        Histogram total = new Histogram(3);
+        Histogram interval = null;
+        Totals totals = new Totals();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.getTargetRps() != null) {
+                workers.execute(() -> dispatchOpen(workers, start, deadline));
+            } else {
+                for (int i = 0; i < options.getConcurrency(); i++) {
+                    workers.execute(() -> runClosed(deadline));
+                }
+            }
+
+            for (long second = 1; !stopped; second++) {
+                long tick = Math.min(start + second * SECOND_NANOS, deadline);
+                parkUntil(tick);
+                interval = latencies.getIntervalHistogram(interval);
+                total.add(interval);
+                publish(snapshot(false, tick - start, interval, totals.drain(), 1.0));
+                if (tick >= deadline) {
+                    break;
+                }
+            }
+            stopped = true;
+        }
+
+        // Requests still in flight at the deadline completed while the executor closed
+        interval = latencies.getIntervalHistogram(interval);
+        total.add(interval);
+        totals.drain();
+
+        long elapsed = System.nanoTime() - start;
+        return snapshot(true, elapsed, total, totals, elapsed / (double) SECOND_NANOS);
+    }
+
+    private void dispatchOpen(ExecutorService workers, long start, long deadline) {
+        double periodNanos = SECOND_NANOS / (double) options.getTargetRps();
+
+        for (long i = 0; !stopped; i++) {
+            long intendedStart = start + (long) (i * periodNanos);
+            if (intendedStart >= deadline) {
+                return;
+            }
+            parkUntil(intendedStart);
+
+            if (inFlight.get() >= MAX_IN_FLIGHT) {
+                dropped.increment();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            // Latency is taken from the scheduled start so a stalled server is not hidden
+            // by the dispatcher falling behind (coordinated omission)
+            workers.execute(() -> {
+                try {
+                    send(intendedStart);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void runClosed(long deadline) {
+        while (!stopped && System.nanoTime() < deadline) {
+            inFlight.incrementAndGet();
+            try {
+                send(System.nanoTime());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private void send(long startNanos) {
+        // Protocol interceptors mutate the request, so each send gets its own copy
+        ClassicHttpRequest request = ClassicRequestBuilder.copy(template).build();
+        // The copy drops the template's config, so it travels in the context instead
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        try {
+            int status = httpClient.execute(request, context, response -> {
+                EntityUtils.consume(response.getEntity());
+                return response.getCode();
+            });
+            int statusClass = status / 100 - 1;
+            if (statusClass >= 0 && statusClass < statusCounts.length) {
+                statusCounts[statusClass].increment();
+            }
+            if (status >= 400) {
+                errors.increment();
+            }
+        } catch (Exception e) {
+            log.debug("Load test request failed: {}", e.getMessage());
+            failed.increment();
+            errors.increment();
+        } finally {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            requests.increment();
+        }
+    }
+
+    private void publish(LoadTestSnapshotDTO snapshot) {
+        try {
+            listener.accept(snapshot);
+        } catch (Exception e) {
+            // Usually the client went away; no point in generating more load
+            log.info("Stopping load test, snapshot listener failed: {}", e.getMessage());
+            stopped = true;
+        }
+    }
+
+    private LoadTestSnapshotDTO snapshot(boolean summary, long elapsedNanos, Histogram histogram,
+                                         Totals counts, double seconds) {
+        boolean empty = histogram.getTotalCount() == 0;
+
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            if (counts.statusCounts[i] > 0) {
+                statuses.put(STATUS_CLASSES[i], counts.statusCounts[i]);
+            }
+        }
+        if (counts.failed > 0) {
+            statuses.put("failed", counts.failed);
+        }
+
+        return LoadTestSnapshotDTO.builder()
+                .summary(summary)
+                .elapsedSeconds(Math.round(elapsedNanos / (double) SECOND_NANOS))
+                .requests(counts.requests)
+                .throughput(seconds > 0 ? counts.requests / seconds : 0.0)
+                .errors(counts.errors)
+                .dropped(counts.dropped)
+                .statusCounts(statuses)
+                .meanMs(empty ? null : histogram.getMean() / 1000.0)
+                .p50Ms(empty ? null : percentileMs(histogram, 50))
+                .p90Ms(empty ? null : percentileMs(histogram, 90))
+                .p99Ms(empty ? null : percentileMs(histogram, 99))
+                .p999Ms(empty ? null : percentileMs(histogram, 99.9))
+                .maxMs(empty ? null : histogram.getMaxValue() / 1000.0)
+                .inFlight(inFlight.get())
+                .build();
+    }
+
+    private static double percentileMs(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private void parkUntil(long nanoTime) {
+        long remaining;
+        while (!stopped && (remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Counter values for one interval; {@link #drain()} also accumulates them
+     * into this instance so a single object can hold the run totals.
+     */
+    private final class Totals {
+        private long requests;
+        private long errors;
+        private long dropped;
+        private long failed;
+        private final long[] statusCounts = new long[STATUS_CLASSES.length];
+
+        Totals drain() {
+            Totals interval = new Totals();
+            interval.requests = LoadTestRunner.this.requests.sumThenReset();
+            interval.errors = LoadTestRunner.this.errors.sumThenReset();
+            interval.dropped = LoadTestRunner.this.dropped.sumThenReset();
+            interval.failed = LoadTestRunner.this.failed.sumThenReset();
+            for (int i = 0; i < statusCounts.length; i++) {
+                interval.statusCounts[i] = LoadTestRunner.this.statusCounts[i].sumThenReset();
+                statusCounts[i] += interval.statusCounts[i];
+            }
+            requests += interval.requests;
+            errors += interval.errors;
+            dropped += interval.dropped;
+            failed += interval.failed;
+            return interval;
+        }
+    }
+}
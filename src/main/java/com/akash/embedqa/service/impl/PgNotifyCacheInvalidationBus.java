@@ -0,0 +1,239 @@
+package com.akash.embedqa.service.impl;
+
+import com.akash.embedqa.enums.CacheTopic;
+import com.akash.embedqa.service.CacheInvalidationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheInvalidationBus} on PostgreSQL {@code LISTEN/NOTIFY}, so instances need
+ * nothing beyond the database they already share.
+ *
+ * Messages are sent with {@code pg_notify} on the caller's connection, which makes
+ * them part of its transaction. A background thread keeps one dedicated connection
+ * (outside the pool) listening on the channel and hands incoming messages to the
+ * subscribed caches. Whenever that connection is (re)established every subscriber
+ * evicts everything, since messages sent while it was down are lost.
+ *
+ * Payloads are {@code "<instance> <topic> <id>"}; an instance skips its own.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Slf4j
+@Service
+public class PgNotifyCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    static final String CHANNEL = "embedqa_cache_invalidation";
+
+    private static final int POLL_TIMEOUT_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<CacheTopic, List<Listener>> listeners = new EnumMap<>(CacheTopic.class);
+
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter reconnectCounter;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PgNotifyCacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            MeterRegistry meterRegistry,
+            @Value("${embedqa.cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${embedqa.cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.reconnectDelay = reconnectDelay;
+
+        for (CacheTopic topic : CacheTopic.values()) {
+            listeners.put(topic, new CopyOnWriteArrayList<>());
+        }
+
+        this.publishedCounter = Counter.builder("embedqa.cache.invalidation.published")
+                .description("Cache invalidation messages sent to other instances")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("embedqa.cache.invalidation.received")
+                .description("Cache invalidation messages received from other instances")
+                .register(meterRegistry);
+        this.reconnectCounter = Counter.builder("embedqa.cache.invalidation.reconnects")
+                .description("Times the listening connection was lost and local caches were cleared")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(CacheTopic topic, Long id) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, instanceId + " " + topic + " " + id);
+        publishedCounter.increment();
+    }
+
+    @Override
+    public void subscribe(CacheTopic topic, Listener listener) {
+        listeners.get(topic).add(listener);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("embedqa-cache-invalidation")
+                .daemon()
+                .start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread == null) {
+            return;
+        }
+        try {
+            listenerThread.join(POLL_TIMEOUT_MS * 4L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        boolean firstConnect = true;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (!firstConnect) {
+                    reconnectCounter.increment();
+                }
+                firstConnect = false;
+                // Anything cached so far may have missed a message
+                evictAll();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {}: {}",
+                        reconnectDelay, e.getMessage());
+                if (!backOff()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // Ending the thread would leave this instance's caches stale for good
+                if (!running) {
+                    return;
+                }
+                log.error("Cache invalidation listener failed, reconnecting in {}", reconnectDelay, e);
+                if (!backOff()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // False if interrupted while waiting
+    private boolean backOff() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(reconnectDelay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation message: {}", payload);
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return;
+        }
+
+        CacheTopic topic;
+        long id;
+        try {
+            topic = CacheTopic.valueOf(parts[1]);
+            id = Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException e) {
+            // Possibly a topic added by a newer instance
+            log.warn("Ignoring unknown cache invalidation message: {}", payload);
+            return;
+        }
+
+        receivedCounter.increment();
+        for (Listener listener : listeners.get(topic)) {
+            try {
+                listener.evict(id);
+            } catch (RuntimeException e) {
+                log.warn("Cache eviction for {} {} failed", topic, id, e);
+            }
+        }
+    }
+
+    private void evictAll() {
+        listeners.forEach((topic, topicListeners) -> {
+            for (Listener listener : topicListeners) {
+                try {
+                    listener.evictAll();
+                } catch (RuntimeException e) {
+                    log.warn("Clearing the {} cache failed", topic, e);
+                }
+            }
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package com.akash.embedqa.service.impl;
 
+import com.akash.embedqa.enums.CacheTopic;
 import com.akash.embedqa.exception.ResourceNotFoundException;
+import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
 import com.akash.embedqa.model.dtos.request.KeyValuePairDTO;
 import com.akash.embedqa.model.dtos.request.SaveRequestDTO;
 import com.akash.embedqa.model.dtos.response.RequestDetailDTO;
@@ -9,7 +11,9 @@ import com.akash.embedqa.model.entities.*;
 import com.akash.embedqa.repository.ApiCollectionRepository;
 import com.akash.embedqa.repository.ApiRequestRepository;
 import com.akash.embedqa.repository.EnvironmentRepository;
+import com.akash.embedqa.service.CacheInvalidationBus;
 import com.akash.embedqa.service.RequestService;
+import com.akash.embedqa.utils.ExecuteRequestMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +40,7 @@ public class RequestServiceImpl implements RequestService {
     private final ApiCollectionRepository collectionRepository;
     private final EnvironmentRepository environmentRepository;
     private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
 
     @Override
     @Transactional
@@ -183,6 +188,7 @@ public class RequestServiceImpl implements RequestService {
         }
 
         ApiRequest saved = requestRepository.save(request);
+        invalidationBus.publish(CacheTopic.API_REQUEST, id);
         log.info("Request updated successfully: {}", saved.getId());
         return mapToDetail(saved);
     }
@@ -195,6 +201,14 @@ public class RequestServiceImpl implements RequestService {
         return mapToDetail(request);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ExecuteRequestDTO toExecuteRequest(Long id, Long environmentId) {
+        ApiRequest request = requestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Request", id));
+        return ExecuteRequestMapper.fromSavedRequest(request, environmentId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<RequestSummaryDTO> getAll(Pageable pageable) {
@@ -214,6 +228,7 @@ public class RequestServiceImpl implements RequestService {
             throw new ResourceNotFoundException("Request", id);
         }
         requestRepository.deleteById(id);
+        invalidationBus.publish(CacheTopic.API_REQUEST, id);
     }
 
     private RequestDetailDTO mapToDetail(ApiRequest request) {
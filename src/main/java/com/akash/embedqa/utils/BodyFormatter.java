@@ -0,0 +1,275 @@
+package com.akash.embedqa.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Pretty-prints JSON and XML bodies by copying tokens from a streaming parser to a
+ * streaming writer, so no object tree is built and the input is read once.
+ *
+ * Both methods return null for input that does not parse; output written up to
+ * that point is discarded.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public final class BodyFormatter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private static final String XML_INDENT = "  ";
+
+    private BodyFormatter() {
+    }
+
+    /**
+     * Pretty-prints JSON or XML as told by the content type.
+     *
+     * @return the formatted body, or {@code body} itself if the type is neither or the
+     * body does not parse
+     */
+    public static String format(String body, String contentType) {
+        String formatted = null;
+        if (body != null && contentType != null) {
+            if (contentType.contains("json")) {
+                formatted = formatJson(body);
+            } else if (contentType.contains("xml")) {
+                formatted = formatXml(body);
+            }
+        }
+        return formatted != null ? formatted : body;
+    }
+
+    /**
+     * Same layout as {@code ObjectMapper.writerWithDefaultPrettyPrinter()}; numbers keep
+     * their original text.
+     */
+    public static String formatJson(byte[] json) {
+        try {
+            return formatJson(JSON_FACTORY.createParser(json), json.length);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static String formatJson(String json) {
+        try {
+            return formatJson(JSON_FACTORY.createParser(json), json.length());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String formatJson(JsonParser input, int length) {
+        StringWriter out = new StringWriter(length + length / 4);
+        try (JsonParser parser = input;
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter());
+
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            int depth = 0;
+            do {
+                if (token.isNumeric()) {
+                    // As written: the exact copy still goes through BigDecimal (2e10, -0.0)
+                    generator.writeNumber(parser.getText());
+                } else {
+                    generator.copyCurrentEventExact(parser);
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            } while (depth > 0 && (token = parser.nextToken()) != null);
+
+            // Anything after the root value makes it invalid
+            if (depth != 0 || parser.nextToken() != null) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Indents nested elements by two spaces. Elements holding text stay on one line and
+     * mixed content is left as it is; whitespace-only text between elements is replaced
+     * by the indentation. Documents with a DTD are not formatted (null).
+     */
+    public static String formatXml(byte[] xml) {
+        try {
+            return formatXml(XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml)), xml.length);
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    public static String formatXml(String xml) {
+        try {
+            return formatXml(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml)), xml.length());
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static String formatXml(XMLStreamReader reader, int length) {
+        StringWriter out = new StringWriter(length + length / 4);
+        XMLStreamWriter writer = null;
+        try {
+            writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out);
+
+            int depth = 0;
+            // Whether the previous token ends a line of markup (element end, comment, ...)
+            boolean afterMarkup = false;
+            // Whether the previous token was text, which a new line would change
+            boolean afterText = false;
+            boolean wroteAny = false;
+
+            if (reader.getVersion() != null) {
+                writer.writeStartDocument(reader.getVersion());
+                wroteAny = true;
+            }
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        newLine(writer, depth, wroteAny && !afterText);
+                        copyStartElement(reader, writer);
+                        depth++;
+                        afterMarkup = false;
+                        afterText = false;
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        depth--;
+                        newLine(writer, depth, afterMarkup);
+                        writer.writeEndElement();
+                        afterMarkup = true;
+                        afterText = false;
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE -> {
+                        if (reader.isWhiteSpace()) {
+                            continue;
+                        }
+                        writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(),
+                                reader.getTextLength());
+                        afterMarkup = false;
+                        afterText = true;
+                    }
+                    case XMLStreamConstants.CDATA -> {
+                        writer.writeCData(reader.getText());
+                        afterMarkup = false;
+                        afterText = true;
+                    }
+                    case XMLStreamConstants.COMMENT -> {
+                        newLine(writer, depth, wroteAny && !afterText);
+                        writer.writeComment(reader.getText());
+                        afterMarkup = true;
+                    }
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                        newLine(writer, depth, wroteAny && !afterText);
+                        writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                        afterMarkup = true;
+                    }
+                    case XMLStreamConstants.DTD -> {
+                        return null;
+                    }
+                    case XMLStreamConstants.ENTITY_REFERENCE -> {
+                        writer.writeEntityRef(reader.getLocalName());
+                        afterMarkup = false;
+                        afterText = true;
+                    }
+                    default -> {
+                        // END_DOCUMENT
+                        continue;
+                    }
+                }
+                wroteAny = true;
+            }
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            return null;
+        } finally {
+            close(reader, writer);
+        }
+        return out.toString();
+    }
+
+    private static void copyStartElement(XMLStreamReader reader, XMLStreamWriter writer)
+            throws XMLStreamException {
+        writer.writeStartElement(nullToEmpty(reader.getPrefix()), reader.getLocalName(),
+                nullToEmpty(reader.getNamespaceURI()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            if (prefix == null || prefix.isEmpty()) {
+                writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+            } else {
+                writer.writeNamespace(prefix, reader.getNamespaceURI(i));
+            }
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            if (prefix == null || prefix.isEmpty()) {
+                writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            } else {
+                writer.writeAttribute(prefix, reader.getAttributeNamespace(i), reader.getAttributeLocalName(i),
+                        reader.getAttributeValue(i));
+            }
+        }
+    }
+
+    private static void newLine(XMLStreamWriter writer, int depth, boolean needed)
+            throws XMLStreamException {
+        if (needed) {
+            writer.writeCharacters("\n" + XML_INDENT.repeat(depth));
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static void close(XMLStreamReader reader, XMLStreamWriter writer) {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            // Nothing held beyond the in-memory buffers
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // Keep entity references as they are instead of expanding them
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,52 @@
+package com.akash.embedqa.utils;
+
+import com.akash.embedqa.enums.AuthType;
+import com.akash.embedqa.enums.BodyType;
+import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
+import com.akash.embedqa.model.dtos.request.KeyValuePairDTO;
+import com.akash.embedqa.model.entities.ApiRequest;
+
+/**
+ * Turns a saved {@link ApiRequest} into the DTO the executor runs.
+ * Headers and query parameters must already be initialized.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public final class ExecuteRequestMapper {
+
+    private ExecuteRequestMapper() {
+    }
+
+    /**
+     * @param environmentId environment to resolve variables against; when null the
+     *                      request's own environment is used
+     */
+    public static ExecuteRequestDTO fromSavedRequest(ApiRequest request, Long environmentId) {
+        Long resolvedEnvironmentId = environmentId != null ? environmentId
+                : request.getEnvironment() != null ? request.getEnvironment().getId() : null;
+
+        return ExecuteRequestDTO.builder()
+                .url(request.getUrl())
+                .method(request.getMethod())
+                .headers(request.getHeaders().stream()
+                        .map(h -> KeyValuePairDTO.builder()
+                                .key(h.getHeaderName())
+                                .value(h.getHeaderValue())
+                                .build())
+                        .toList())
+                .queryParams(request.getQueryParams().stream()
+                        .map(p -> KeyValuePairDTO.builder()
+                                .key(p.getName())
+                                .value(p.getValue())
+                                .build())
+                        .toList())
+                .body(request.getRequestBody())
+                .bodyType(request.getBodyType() != null ? request.getBodyType() : BodyType.NONE)
+                .authType(request.getAuthType() != null ? request.getAuthType() : AuthType.NONE)
+                .authConfig(request.getAuthConfig())
+                .environmentId(resolvedEnvironmentId)
+                .name(request.getName())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.akash.embedqa.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by id ascending, such as the requests of a
+ * collection.
+ *
+ * Clients only see it as an opaque URL-safe token; the next page starts right
+ * after the entry it points to.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public record IdCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static IdCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new IdCursor(Long.parseLong(raw));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
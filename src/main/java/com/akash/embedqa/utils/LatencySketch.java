@@ -0,0 +1,79 @@
+package com.akash.embedqa.utils;
+
+/**
+ * Fixed-size, mergeable response-time histogram stored with each history rollup.
+ *
+ * 64 slots: exact for 0-3 ms, then four slots per power of two, so a slot is at
+ * most 25% wide and a percentile read from its midpoint is within ~12%. Slot 63
+ * collects everything from 114688 ms (~115 s). Sketches merge by adding slot counts.
+ * Must stay in step with {@code rollup_latency_bucket} in the V5 migration.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public final class LatencySketch {
+
+    public static final int SLOTS = 64;
+
+    private LatencySketch() {
+    }
+
+    public static int bucketOf(long ms) {
+        if (ms <= 0) {
+            return 0;
+        }
+        if (ms < 4) {
+            return (int) ms;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(ms);
+        int slot = 4 + (exponent - 2) * 4 + (int) ((ms >> (exponent - 2)) & 3);
+        return Math.min(SLOTS - 1, slot);
+    }
+
+    public static long[] empty() {
+        return new long[SLOTS];
+    }
+
+    public static void record(long[] sketch, long ms) {
+        sketch[bucketOf(ms)]++;
+    }
+
+    public static void merge(long[] into, long[] other) {
+        for (int i = 0; i < SLOTS && i < other.length; i++) {
+            into[i] += other[i];
+        }
+    }
+
+    /**
+     * Estimated value at {@code percentile} (0-100), or null for an empty sketch.
+     */
+    public static Double percentile(long[] sketch, double percentile) {
+        long total = 0;
+        for (long count : sketch) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int slot = 0; slot < sketch.length; slot++) {
+            seen += sketch[slot];
+            if (seen >= rank) {
+                return midpoint(slot);
+            }
+        }
+        return midpoint(SLOTS - 1);
+    }
+
+    private static double midpoint(int slot) {
+        if (slot < 4) {
+            return slot;
+        }
+        int exponent = (slot - 4) / 4 + 2;
+        long lower = (long) (4 + (slot - 4) % 4) << (exponent - 2);
+        long width = 1L << (exponent - 2);
+        return lower + (width - 1) / 2.0;
+    }
+}
@@ -0,0 +1,156 @@
+package com.akash.embedqa.utils;
+
+import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the time of one exchange went: DNS lookup, TCP connect, TLS handshake,
+ * time to first byte and body download.
+ *
+ * An instance rides along in the exchange's {@link HttpContext}; the connection
+ * operator and exec chain hooks installed by {@code PhaseTimingSupport} mark each
+ * phase with {@link System#nanoTime()}. Callers attach one to read the phases;
+ * otherwise the exec chain attaches its own, which only feeds the pool metrics.
+ *
+ * A request sent on a pooled connection (or as another stream of a shared HTTP/2
+ * connection) has no DNS, connect or TLS phase, so those report 0 and the response
+ * is marked as reusing its connection. After redirects every phase describes the
+ * last hop.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public class PhaseTimings {
+
+    public static final String CONTEXT_ATTRIBUTE = "embedqa.phase-timings";
+
+    // Marks may be set on an I/O reactor thread and read on another; 0 means not reached
+    private volatile long leaseStarted;
+    private volatile long connectStarted;
+    private volatile long socketConnectStarted;
+    private volatile long socketConnected;
+    private volatile long tlsStarted;
+    private volatile long tlsDone;
+    private volatile long requestSent;
+    private volatile long firstByte;
+    private volatile long bodyDone;
+
+    public static PhaseTimings attach(HttpContext context) {
+        PhaseTimings timings = new PhaseTimings();
+        context.setAttribute(CONTEXT_ATTRIBUTE, timings);
+        return timings;
+    }
+
+    /**
+     * The timings of the exchange, or null if it is not being timed.
+     */
+    public static PhaseTimings from(HttpContext context) {
+        return context != null && context.getAttribute(CONTEXT_ATTRIBUTE) instanceof PhaseTimings timings
+                ? timings
+                : null;
+    }
+
+    /**
+     * A connection is being leased from the pool for the next hop; whatever the
+     * previous hop connected no longer applies.
+     */
+    public void leaseStarted() {
+        leaseStarted = System.nanoTime();
+        connectStarted = 0;
+        socketConnectStarted = 0;
+        socketConnected = 0;
+        tlsStarted = 0;
+        tlsDone = 0;
+    }
+
+    /**
+     * Time spent waiting for the pool, up to now if the lease is still pending: until
+     * a new connection started opening, or until the request went out on a reused one.
+     */
+    public long leaseWaitNanos() {
+        long leased = connectStarted != 0 ? connectStarted
+                : socketConnectStarted != 0 ? socketConnectStarted
+                : requestSent > leaseStarted ? requestSent
+                : System.nanoTime();
+        return leased - leaseStarted;
+    }
+
+    /**
+     * A new connection is being opened, starting with the host name lookup.
+     */
+    public void connectStarted() {
+        connectStarted = System.nanoTime();
+        socketConnectStarted = 0;
+        socketConnected = 0;
+        tlsStarted = 0;
+        tlsDone = 0;
+    }
+
+    public void socketConnectStarted() {
+        // Later attempts at other addresses of the same host count as connect time
+        if (socketConnectStarted == 0) {
+            socketConnectStarted = System.nanoTime();
+        }
+    }
+
+    public void socketConnected() {
+        socketConnected = System.nanoTime();
+    }
+
+    public void tlsStarted() {
+        tlsStarted = System.nanoTime();
+    }
+
+    public void tlsDone() {
+        tlsDone = System.nanoTime();
+    }
+
+    public void requestSent() {
+        requestSent = System.nanoTime();
+    }
+
+    public void firstByteReceived() {
+        firstByte = System.nanoTime();
+    }
+
+    public void bodyReceived() {
+        bodyDone = System.nanoTime();
+    }
+
+    /**
+     * When the response head arrived, in {@link System#nanoTime()} terms, or 0.
+     */
+    public long firstByteNanos() {
+        return firstByte;
+    }
+
+    /**
+     * When the response body was fully read, in {@link System#nanoTime()} terms, or 0.
+     */
+    public long bodyReceivedNanos() {
+        return bodyDone;
+    }
+
+    /**
+     * Copies the phases reached so far into the response.
+     */
+    public void applyTo(ApiResponseDTO response) {
+        if (requestSent == 0) {
+            return;
+        }
+        boolean newConnection = socketConnectStarted != 0;
+        response.setConnectionReused(!newConnection);
+        response.setDnsLookupTimeMs(newConnection ? between(connectStarted, socketConnectStarted) : Long.valueOf(0));
+        response.setConnectionTimeMs(newConnection ? between(socketConnectStarted, socketConnected) : Long.valueOf(0));
+        response.setTlsHandshakeTimeMs(tlsStarted != 0 ? between(tlsStarted, tlsDone) : Long.valueOf(0));
+        response.setFirstByteTimeMs(between(requestSent, firstByte));
+        response.setDownloadTimeMs(between(firstByte, bodyDone));
+    }
+
+    // Null when either end was not reached (or, for DNS, not observable)
+    private static Long between(long from, long to) {
+        return from != 0 && to != 0 ? TimeUnit.NANOSECONDS.toMillis(to - from) : null;
+    }
+}
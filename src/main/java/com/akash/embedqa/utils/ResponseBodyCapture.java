@@ -0,0 +1,181 @@
+package com.akash.embedqa.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Consumes one response body as it arrives.
+ *
+ * Every byte is counted and fed into a SHA-256 digest, but only the first
+ * {@code limit} bytes are kept in memory. Once a body grows past the limit and a
+ * spill directory is set, the whole body is also written to a file there, which can
+ * be fetched later by the id in {@link Captured#spoolId()}. Bodies within the limit
+ * never touch the disk.
+ *
+ * Not thread-safe; one capture belongs to one exchange.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public class ResponseBodyCapture {
+
+    public static final String PART_SUFFIX = ".part";
+    public static final String BODY_SUFFIX = ".body";
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final int limit;
+    private final Path spillDir;
+    private final MessageDigest digest;
+    private final ByteArrayOutputStream head;
+    private final Consumer<Captured> onFinish;
+
+    private long size;
+    private String spoolId;
+    private OutputStream spill;
+    private boolean finished;
+
+    /**
+     * @param spillDir where bodies over the limit are written, or null to only keep the head
+     * @param onFinish called with the result of {@link #finish()}
+     */
+    public ResponseBodyCapture(int limit, Path spillDir, Consumer<Captured> onFinish) {
+        this.limit = limit;
+        this.spillDir = spillDir;
+        this.onFinish = onFinish;
+        this.digest = sha256();
+        this.head = new ByteArrayOutputStream(Math.min(limit, 8192));
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        digest.update(bytes, offset, length);
+
+        int keep = (int) Math.min(length, Math.max(0, limit - size));
+        if (keep > 0) {
+            head.write(bytes, offset, keep);
+        }
+        size += length;
+
+        if (size > limit && spillDir != null) {
+            if (spill == null) {
+                // The head holds everything received so far; the rest of this chunk follows it
+                openSpill();
+                head.writeTo(spill);
+                spill.write(bytes, offset + keep, length - keep);
+            } else {
+                spill.write(bytes, offset, length);
+            }
+        }
+    }
+
+    /**
+     * Consumes the remaining bytes of {@code src}, using {@code scratch} to copy out of
+     * buffers that are not array-backed.
+     */
+    public void write(ByteBuffer src, byte[] scratch) throws IOException {
+        if (src.hasArray()) {
+            int length = src.remaining();
+            write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.position() + length);
+            return;
+        }
+        while (src.hasRemaining()) {
+            int length = Math.min(src.remaining(), scratch.length);
+            src.get(scratch, 0, length);
+            write(scratch, 0, length);
+        }
+    }
+
+    /**
+     * Ends the body. A spilled body becomes visible under its id only from here on.
+     */
+    public Captured finish() throws IOException {
+        finished = true;
+        if (spill != null) {
+            spill.close();
+            Files.move(spillDir.resolve(spoolId + PART_SUFFIX), spillDir.resolve(spoolId + BODY_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        Captured captured = new Captured(head.toByteArray(), size, size > limit,
+                HEX.formatHex(digest.digest()), spoolId);
+        onFinish.accept(captured);
+        return captured;
+    }
+
+    /**
+     * Drops a partly written spill file. Does nothing after {@link #finish()}.
+     */
+    public void abort() {
+        if (finished || spill == null) {
+            return;
+        }
+        finished = true;
+        try {
+            spill.close();
+            Files.deleteIfExists(spillDir.resolve(spoolId + PART_SUFFIX));
+        } catch (IOException e) {
+            // Left for the spool cleanup
+        }
+    }
+
+    private void openSpill() throws IOException {
+        spoolId = UUID.randomUUID().toString();
+        Files.createDirectories(spillDir);
+        spill = Files.newOutputStream(spillDir.resolve(spoolId + PART_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param head      the first bytes of the body, at most the capture limit
+     * @param size      exact body size in bytes
+     * @param truncated whether the body was longer than {@code head}
+     * @param sha256    hex SHA-256 of the whole body
+     * @param spoolId   id of the spilled full body, or null if it was not spilled
+     */
+    public record Captured(byte[] head, long size, boolean truncated, String sha256, String spoolId) {
+
+        /**
+         * The head decoded as UTF-8. A truncated head is cut back to its last complete
+         * sequence first, so a character split by the limit does not end in U+FFFD.
+         */
+        public String headText() {
+            int length = truncated ? completeUtf8Length(head) : head.length;
+            return new String(head, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Length of bytes without a multi-byte sequence cut short at the end
+    private static int completeUtf8Length(byte[] bytes) {
+        int lead = bytes.length - 1;
+        // A sequence is at most four bytes: step back over up to three continuation bytes
+        while (lead > 0 && bytes.length - lead < 4 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead < 0) {
+            return 0;
+        }
+        int b = bytes[lead] & 0xFF;
+        int sequenceLength = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+        return lead + sequenceLength > bytes.length ? lead : bytes.length;
+    }
+}
@@ -0,0 +1,113 @@
+package com.akash.embedqa.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A string with {@code {{variable}}} placeholders, parsed once into literal and
+ * variable segments and then rendered without regex.
+ *
+ * Placeholders follow the rules of the pattern {@code \{\{([^}]+)}}} used before:
+ * the name runs to the first {@code '}'}, must be followed by a second one, and is
+ * trimmed. Unknown variables are left in place as written.
+ *
+ * {@link #resolve(String, Map)} keeps compiled templates in a cache bounded by total
+ * source length, so the URL, headers and body of a request that runs again (collection
+ * runs, re-executions) are parsed only once.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public final class VariableTemplate {
+
+    private static final String OPEN = "{{";
+
+    // Total characters of cached template sources
+    private static final long CACHE_CHARS = 8L * 1024 * 1024;
+
+    private static final Cache<String, VariableTemplate> CACHE = Caffeine.newBuilder()
+            .maximumWeight(CACHE_CHARS)
+            .<String, VariableTemplate>weigher((source, template) -> source.length())
+            .build();
+
+    // literals[i] precedes names[i]; the last literal follows the last name
+    private final String[] literals;
+    private final String[] names;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private VariableTemplate(String[] literals, String[] names, String[] placeholders, int literalLength) {
+        this.literals = literals;
+        this.names = names;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Replaces the placeholders in {@code input}. Returns {@code input} itself when it is
+     * null, has no placeholder, or there are no variables.
+     */
+    public static String resolve(String input, Map<String, String> variables) {
+        if (input == null || variables.isEmpty() || !input.contains(OPEN)) {
+            return input;
+        }
+        return CACHE.get(input, VariableTemplate::compile).render(variables);
+    }
+
+    public static VariableTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalLength = 0;
+
+        int literalStart = 0;
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf('}', open + OPEN.length());
+            if (close <= open + OPEN.length() || close + 1 >= source.length() || source.charAt(close + 1) != '}') {
+                // Not a placeholder here; one may still start at the next character
+                from = open + 1;
+                continue;
+            }
+            String literal = source.substring(literalStart, open);
+            literals.add(literal);
+            literalLength += literal.length();
+            names.add(source.substring(open + OPEN.length(), close).trim());
+            placeholders.add(source.substring(open, close + 2));
+
+            literalStart = close + 2;
+            from = literalStart;
+        }
+        String tail = source.substring(literalStart);
+        literals.add(tail);
+        literalLength += tail.length();
+
+        return new VariableTemplate(literals.toArray(String[]::new), names.toArray(String[]::new),
+                placeholders.toArray(String[]::new), literalLength);
+    }
+
+    public String render(Map<String, String> variables) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+
+        String[] values = new String[names.length];
+        int length = literalLength;
+        for (int i = 0; i < names.length; i++) {
+            String value = variables.get(names[i]);
+            values[i] = value != null ? value : placeholders[i];
+            length += values[i].length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]).append(values[i]);
+        }
+        return out.append(literals[names.length]).toString();
+    }
+}
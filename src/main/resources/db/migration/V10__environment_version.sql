@@ -0,0 +1,9 @@
+-- =====================================================
+-- V10__environment_version.sql
+-- Row version for environments, bumped on every update;
+-- lets cached variable maps tell an old load from a new one
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+ALTER TABLE environments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- =====================================================
+-- V11__api_requests_collection_keyset_index.sql
+-- Index matching the keyset order of a collection's requests
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Member pages seek on collection_id = :id AND id > :after ORDER BY id, which is a
+-- range scan of this index that stops after one page. It also serves everything the
+-- single-column index did (lookups and counts by collection), so that one goes.
+CREATE INDEX idx_api_requests_collection_id_id ON api_requests(collection_id, id);
+
+DROP INDEX IF EXISTS idx_api_requests_collection_id;
+
+-- Rollback: CREATE INDEX idx_api_requests_collection_id ON api_requests(collection_id);
+--           DROP INDEX idx_api_requests_collection_id_id;
@@ -0,0 +1,15 @@
+-- =====================================================
+-- V12__request_history_phase_timings.sql
+-- Per-phase timings of each execution, in milliseconds;
+-- null where a phase was not reached or not observable
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Added on the partitioned parent, so every partition gets them
+ALTER TABLE request_history
+    ADD COLUMN dns_lookup_time    BIGINT,
+    ADD COLUMN connection_time    BIGINT,
+    ADD COLUMN tls_handshake_time BIGINT,
+    ADD COLUMN first_byte_time    BIGINT,
+    ADD COLUMN download_time      BIGINT;
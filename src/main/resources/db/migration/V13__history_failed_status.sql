@@ -0,0 +1,17 @@
+-- =====================================================
+-- V13__history_failed_status.sql
+-- Let request_history store executions that failed without
+-- a response (refused, timed out, invalid URL) as status 0,
+-- which the rollups already count as status class 0
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Dropped and added on the partitioned parent, so every partition follows
+ALTER TABLE request_history DROP CONSTRAINT chk_request_history_status_code_valid;
+
+ALTER TABLE request_history
+    ADD CONSTRAINT chk_request_history_status_code_valid
+    CHECK (status_code = 0 OR (status_code >= 100 AND status_code < 600));
+
+COMMENT ON COLUMN request_history.status_code IS 'HTTP status code; 0 = request failed without a response';
@@ -0,0 +1,14 @@
+-- =====================================================
+-- V4__request_history_pooled_ids.sql
+-- Let Hibernate allocate request_history ids in blocks so
+-- history inserts can be JDBC-batched
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- IDENTITY generation forces one INSERT ... RETURNING per row. With a pooled
+-- sequence Hibernate reserves 50 ids per nextval() and batches the inserts.
+-- Must match allocationSize on RequestHistory.id.
+ALTER SEQUENCE request_history_id_seq INCREMENT BY 50;
+
+-- Rollback: ALTER SEQUENCE request_history_id_seq INCREMENT BY 1;
@@ -0,0 +1,125 @@
+-- =====================================================
+-- V5__history_rollups.sql
+-- Per-minute and per-hour rollups of request_history for
+-- stats and time series that do not scan raw rows
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- =====================================================
+-- Helper functions
+-- =====================================================
+
+-- Host part of a URL, lower-cased ('unknown' when it cannot be parsed).
+-- Mirrors HistoryRollupRepository.hostOf.
+CREATE FUNCTION rollup_host(url TEXT) RETURNS VARCHAR(255)
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT coalesce(left(lower(substring(url FROM '^[a-zA-Z][a-zA-Z0-9+.-]*://([^/:?#]+)')), 255), 'unknown')
+$$;
+
+-- Latency sketch slot (0-63) for a response time in ms: exact below 4 ms, then four
+-- slots per power of two (<= 25% wide). Slot 63 collects everything from 114688 ms (~115 s).
+-- Mirrors LatencySketch.bucketOf.
+CREATE FUNCTION rollup_latency_bucket(ms BIGINT) RETURNS INT
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE
+               WHEN ms <= 0 THEN 0
+               WHEN ms < 4 THEN ms::INT
+               ELSE LEAST(63, 4 + (e - 2) * 4 + ((ms >> (e - 2)) & 3)::INT)
+           END
+    FROM (SELECT length(ltrim(ms::BIT(64)::TEXT, '0')) - 1 AS e) bits
+$$;
+
+-- Sketch holding a single slot count
+CREATE FUNCTION rollup_sketch_of(bucket INT, n BIGINT) RETURNS BIGINT[]
+    LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    sketch BIGINT[] := array_fill(0::BIGINT, ARRAY[64]);
+BEGIN
+    sketch[bucket + 1] := n;
+    RETURN sketch;
+END
+$$;
+
+-- Element-wise sum of two sketches
+CREATE FUNCTION rollup_merge_sketch(a BIGINT[], b BIGINT[]) RETURNS BIGINT[]
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE
+               WHEN a IS NULL THEN b
+               WHEN b IS NULL THEN a
+               ELSE ARRAY(SELECT coalesce(x, 0) + coalesce(y, 0)
+                          FROM unnest(a, b) WITH ORDINALITY AS t(x, y, i)
+                          ORDER BY i)
+           END
+$$;
+
+CREATE AGGREGATE rollup_sketch_sum(BIGINT[]) (
+    SFUNC = rollup_merge_sketch,
+    STYPE = BIGINT[]
+);
+
+-- =====================================================
+-- Rollup tables
+-- =====================================================
+CREATE TABLE request_history_rollup_minute (
+    bucket_start TIMESTAMP NOT NULL,
+    method VARCHAR(10) NOT NULL,
+    host VARCHAR(255) NOT NULL,
+    status_class SMALLINT NOT NULL,
+    request_count BIGINT NOT NULL,
+    sum_ms BIGINT NOT NULL,
+    min_ms BIGINT NOT NULL,
+    max_ms BIGINT NOT NULL,
+    latency_sketch BIGINT[] NOT NULL,
+    PRIMARY KEY (bucket_start, method, host, status_class)
+);
+
+CREATE TABLE request_history_rollup_hour (
+    bucket_start TIMESTAMP NOT NULL,
+    method VARCHAR(10) NOT NULL,
+    host VARCHAR(255) NOT NULL,
+    status_class SMALLINT NOT NULL,
+    request_count BIGINT NOT NULL,
+    sum_ms BIGINT NOT NULL,
+    min_ms BIGINT NOT NULL,
+    max_ms BIGINT NOT NULL,
+    latency_sketch BIGINT[] NOT NULL,
+    PRIMARY KEY (bucket_start, method, host, status_class)
+);
+
+COMMENT ON TABLE request_history_rollup_minute IS 'request_history aggregated per minute, method, host and status class';
+COMMENT ON TABLE request_history_rollup_hour IS 'request_history aggregated per hour, method, host and status class';
+COMMENT ON COLUMN request_history_rollup_minute.status_class IS 'status_code / 100; 0 = request failed without a response';
+COMMENT ON COLUMN request_history_rollup_minute.latency_sketch IS '64 response-time slot counts, see rollup_latency_bucket';
+
+-- =====================================================
+-- Backfill from existing history
+-- =====================================================
+INSERT INTO request_history_rollup_minute
+SELECT bucket_start, method, host, status_class,
+       sum(n), sum(sum_ms), min(min_ms), max(max_ms),
+       rollup_sketch_sum(rollup_sketch_of(bucket, n))
+FROM (SELECT date_trunc('minute', executed_at) AS bucket_start,
+             method,
+             rollup_host(url) AS host,
+             (status_code / 100)::SMALLINT AS status_class,
+             rollup_latency_bucket(response_time) AS bucket,
+             count(*) AS n,
+             sum(response_time) AS sum_ms,
+             min(response_time) AS min_ms,
+             max(response_time) AS max_ms
+      FROM request_history
+      GROUP BY 1, 2, 3, 4, 5) slots
+GROUP BY bucket_start, method, host, status_class;
+
+INSERT INTO request_history_rollup_hour
+SELECT date_trunc('hour', bucket_start), method, host, status_class,
+       sum(request_count), sum(sum_ms), min(min_ms), max(max_ms),
+       rollup_sketch_sum(latency_sketch)
+FROM request_history_rollup_minute
+GROUP BY 1, 2, 3, 4;
+
+-- Rollback:
+-- DROP TABLE request_history_rollup_hour, request_history_rollup_minute;
+-- DROP AGGREGATE rollup_sketch_sum(BIGINT[]);
+-- DROP FUNCTION rollup_merge_sketch, rollup_sketch_of, rollup_latency_bucket, rollup_host;
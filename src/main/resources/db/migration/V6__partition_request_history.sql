@@ -0,0 +1,143 @@
+-- =====================================================
+-- V6__partition_request_history.sql
+-- Range-partition request_history by day on executed_at so
+-- retention drops whole partitions instead of deleting rows
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- =====================================================
+-- Partitioned table
+-- =====================================================
+ALTER TABLE request_history RENAME TO request_history_legacy;
+
+-- Same columns, defaults (id keeps nextval on request_history_id_seq), checks and comments
+CREATE TABLE request_history (
+    LIKE request_history_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS
+) PARTITION BY RANGE (executed_at);
+
+-- The partition key has to be part of the primary key; ids stay unique through the sequence
+ALTER TABLE request_history ADD PRIMARY KEY (id, executed_at);
+ALTER TABLE request_history
+    ADD CONSTRAINT fk_request_history_api_request
+    FOREIGN KEY (api_request_id) REFERENCES api_requests(id) ON DELETE SET NULL;
+ALTER TABLE request_history
+    ADD CONSTRAINT fk_request_history_collection
+    FOREIGN KEY (collection_id) REFERENCES api_collections(id) ON DELETE SET NULL;
+
+-- Catches rows for days that have no partition yet (clock skew, manager not run)
+CREATE TABLE request_history_default PARTITION OF request_history DEFAULT;
+
+COMMENT ON TABLE request_history IS 'Stores history of all executed API requests, one partition per day of executed_at';
+
+-- =====================================================
+-- Partition management
+-- =====================================================
+
+-- Creates request_history_pYYYYMMDD for one day. Rows for that day already in the
+-- default partition are moved into it first. Returns false if it already exists.
+CREATE FUNCTION request_history_ensure_partition(day DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS $$
+DECLARE
+    part TEXT := 'request_history_p' || to_char(day, 'YYYYMMDD');
+    lower_bound TIMESTAMP := day;
+    upper_bound TIMESTAMP := day + 1;
+BEGIN
+    -- Serialises concurrent managers (several app instances)
+    PERFORM pg_advisory_xact_lock(hashtext('request_history_partitions'));
+
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM request_history_default
+               WHERE executed_at >= lower_bound AND executed_at < upper_bound) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE request_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part);
+        EXECUTE format('WITH moved AS (DELETE FROM request_history_default
+                                       WHERE executed_at >= $1 AND executed_at < $2 RETURNING *)
+                        INSERT INTO %I SELECT * FROM moved', part)
+            USING lower_bound, upper_bound;
+        EXECUTE format('ALTER TABLE request_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part, lower_bound, upper_bound);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF request_history FOR VALUES FROM (%L) TO (%L)',
+                       part, lower_bound, upper_bound);
+    END IF;
+    RETURN TRUE;
+END
+$$;
+
+-- Ensures a partition for every day in [from_day, to_day]; returns how many were created
+CREATE FUNCTION request_history_ensure_partitions(from_day DATE, to_day DATE) RETURNS INT
+    LANGUAGE plpgsql AS $$
+DECLARE
+    created INT := 0;
+    day DATE;
+BEGIN
+    FOR day IN SELECT generate_series(from_day, to_day, INTERVAL '1 day')::DATE LOOP
+        IF request_history_ensure_partition(day) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Detaches and drops every daily partition that ends on or before cutoff_day;
+-- returns how many were dropped. Rows in the default partition are left alone.
+CREATE FUNCTION request_history_drop_partitions_before(cutoff_day DATE) RETURNS INT
+    LANGUAGE plpgsql AS $$
+DECLARE
+    dropped INT := 0;
+    part TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('request_history_partitions'));
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'request_history'::REGCLASS
+          AND c.relname ~ '^request_history_p[0-9]{8}$'
+          AND to_date(right(c.relname, 8), 'YYYYMMDD') < cutoff_day
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE request_history DETACH PARTITION %I', part);
+        EXECUTE format('DROP TABLE %I', part);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END
+$$;
+
+-- =====================================================
+-- Copy existing history
+-- =====================================================
+SELECT request_history_ensure_partition(day)
+FROM (SELECT DISTINCT executed_at::DATE AS day FROM request_history_legacy) days;
+
+SELECT request_history_ensure_partitions(CURRENT_DATE, CURRENT_DATE + 7);
+
+INSERT INTO request_history SELECT * FROM request_history_legacy;
+
+-- Keep the sequence when the old table goes
+ALTER SEQUENCE request_history_id_seq OWNED BY request_history.id;
+DROP TABLE request_history_legacy;
+
+-- =====================================================
+-- Indexes (created on every partition, current and future)
+-- =====================================================
+CREATE INDEX idx_request_history_method ON request_history(method);
+CREATE INDEX idx_request_history_status_code ON request_history(status_code);
+CREATE INDEX idx_request_history_executed_at ON request_history(executed_at);
+CREATE INDEX idx_request_history_api_request_id ON request_history(api_request_id);
+CREATE INDEX idx_request_history_collection_id ON request_history(collection_id);
+CREATE INDEX idx_request_history_url ON request_history(url);
+CREATE INDEX idx_request_history_method_status ON request_history(method, status_code);
+CREATE INDEX idx_request_history_executed_status ON request_history(executed_at DESC, status_code);
+CREATE INDEX idx_request_history_url_gin ON request_history USING gin(to_tsvector('english', url));
+
+-- Rollback: recreate request_history as a plain table (V1 + V2 definition),
+-- INSERT INTO it from the partitioned table, then
+-- DROP FUNCTION request_history_drop_partitions_before, request_history_ensure_partitions,
+--               request_history_ensure_partition;
@@ -0,0 +1,13 @@
+-- =====================================================
+-- V7__history_keyset_index.sql
+-- Index matching the keyset order of the history listing
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- Cursor pages seek on (executed_at, id) < (:at, :id) ORDER BY executed_at DESC, id DESC.
+-- With both columns in the index that is a range scan that stops after one page,
+-- at any depth and without a sort.
+CREATE INDEX idx_request_history_executed_id ON request_history(executed_at DESC, id DESC);
+
+-- Rollback: DROP INDEX idx_request_history_executed_id;
@@ -0,0 +1,80 @@
+-- =====================================================
+-- V8__history_bodies.sql
+-- Move request/response bodies out of request_history into
+-- a separate, compressed body store
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- =====================================================
+-- Body store
+-- =====================================================
+CREATE TABLE history_bodies (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 BYTEA NOT NULL,
+    encoding VARCHAR(10) NOT NULL,
+    size BIGINT NOT NULL,
+    content BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_history_bodies_encoding CHECK (encoding IN ('identity', 'gzip'))
+);
+
+COMMENT ON TABLE history_bodies IS 'Request and response bodies of request_history entries, stored out of row';
+COMMENT ON COLUMN history_bodies.sha256 IS 'SHA-256 of the uncompressed UTF-8 body';
+COMMENT ON COLUMN history_bodies.encoding IS 'How content is encoded: identity or gzip';
+COMMENT ON COLUMN history_bodies.size IS 'Uncompressed body size in bytes';
+
+-- =====================================================
+-- References from request_history
+-- =====================================================
+
+-- No foreign keys: bodies are written in the same transaction as their history
+-- row and removed by the orphan sweep once no history row points at them, which
+-- keeps partition drops free of per-row checks
+ALTER TABLE request_history
+    ADD COLUMN request_body_id BIGINT,
+    ADD COLUMN request_body_size BIGINT,
+    ADD COLUMN request_body_sha256 BYTEA,
+    ADD COLUMN response_body_id BIGINT,
+    ADD COLUMN response_body_size BIGINT,
+    ADD COLUMN response_body_sha256 BYTEA;
+
+COMMENT ON COLUMN request_history.request_body_id IS 'history_bodies.id of the request body, NULL if there was none';
+COMMENT ON COLUMN request_history.response_body_id IS 'history_bodies.id of the response body, NULL if there was none';
+
+-- =====================================================
+-- Move existing bodies (stored uncompressed; TOAST still compresses them)
+-- =====================================================
+UPDATE request_history
+SET request_body_id = CASE WHEN request_body IS NOT NULL THEN nextval('history_bodies_id_seq') END,
+    request_body_size = octet_length(convert_to(request_body, 'UTF8')),
+    request_body_sha256 = sha256(convert_to(request_body, 'UTF8')),
+    response_body_id = CASE WHEN response_body IS NOT NULL THEN nextval('history_bodies_id_seq') END,
+    response_body_size = octet_length(convert_to(response_body, 'UTF8')),
+    response_body_sha256 = sha256(convert_to(response_body, 'UTF8'))
+WHERE request_body IS NOT NULL OR response_body IS NOT NULL;
+
+INSERT INTO history_bodies (id, sha256, encoding, size, content)
+SELECT request_body_id, request_body_sha256, 'identity', request_body_size, convert_to(request_body, 'UTF8')
+FROM request_history
+WHERE request_body_id IS NOT NULL
+UNION ALL
+SELECT response_body_id, response_body_sha256, 'identity', response_body_size, convert_to(response_body, 'UTF8')
+FROM request_history
+WHERE response_body_id IS NOT NULL;
+
+ALTER TABLE request_history
+    DROP COLUMN request_body,
+    DROP COLUMN response_body;
+
+-- Pooled ids, as for request_history (must match allocationSize on HistoryBody.id)
+ALTER SEQUENCE history_bodies_id_seq INCREMENT BY 50;
+
+-- For the orphan sweep
+CREATE INDEX idx_request_history_request_body_id ON request_history(request_body_id)
+    WHERE request_body_id IS NOT NULL;
+CREATE INDEX idx_request_history_response_body_id ON request_history(response_body_id)
+    WHERE response_body_id IS NOT NULL;
+
+-- Rollback: add request_body/response_body TEXT back, fill them from history_bodies
+-- (gunzip 'gzip' rows in the application), drop the *_body_* columns and history_bodies.
@@ -0,0 +1,115 @@
+-- =====================================================
+-- V9__dedup_history_bodies.sql
+-- Content-addressed history_bodies: one row per distinct
+-- payload, shared by every history entry that produced it,
+-- with a reference count for retention
+-- Author: akash
+-- Date: 2026-10-17
+-- =====================================================
+
+-- =====================================================
+-- Collapse duplicate bodies
+-- =====================================================
+CREATE TEMPORARY TABLE body_keep ON COMMIT DROP AS
+SELECT id, first_value(id) OVER (PARTITION BY sha256 ORDER BY id) AS keep_id
+FROM history_bodies;
+
+UPDATE request_history h SET request_body_id = k.keep_id
+FROM body_keep k
+WHERE h.request_body_id = k.id AND k.id <> k.keep_id;
+
+UPDATE request_history h SET response_body_id = k.keep_id
+FROM body_keep k
+WHERE h.response_body_id = k.id AND k.id <> k.keep_id;
+
+DELETE FROM history_bodies b
+USING body_keep k
+WHERE b.id = k.id AND k.id <> k.keep_id;
+
+CREATE UNIQUE INDEX uk_history_bodies_sha256 ON history_bodies(sha256);
+
+-- Ids now come from the column default, one per distinct payload
+ALTER SEQUENCE history_bodies_id_seq INCREMENT BY 1;
+
+-- =====================================================
+-- Response headers go to the same store
+-- =====================================================
+ALTER TABLE request_history ADD COLUMN response_headers_id BIGINT;
+COMMENT ON COLUMN request_history.response_headers_id IS 'history_bodies.id of the response headers JSON, NULL if there were none';
+
+INSERT INTO history_bodies (sha256, encoding, size, content)
+SELECT DISTINCT ON (sha256) sha256, 'identity', octet_length(content), content
+FROM (SELECT sha256(convert_to(response_headers, 'UTF8')) AS sha256,
+             convert_to(response_headers, 'UTF8') AS content
+      FROM request_history
+      WHERE response_headers IS NOT NULL) headers
+ON CONFLICT (sha256) DO NOTHING;
+
+UPDATE request_history h SET response_headers_id = b.id
+FROM history_bodies b
+WHERE h.response_headers IS NOT NULL
+  AND b.sha256 = sha256(convert_to(h.response_headers, 'UTF8'));
+
+ALTER TABLE request_history DROP COLUMN response_headers;
+
+-- =====================================================
+-- Reference counts
+-- =====================================================
+ALTER TABLE history_bodies ADD COLUMN ref_count BIGINT NOT NULL DEFAULT 0;
+COMMENT ON COLUMN history_bodies.ref_count IS 'Number of request_history references; rows at 0 are removed by the orphan sweep';
+COMMENT ON TABLE history_bodies IS 'Distinct request/response bodies and response headers of request_history, keyed by SHA-256';
+
+UPDATE history_bodies b SET ref_count = r.n
+FROM (SELECT id, count(*) AS n
+      FROM (SELECT request_body_id AS id FROM request_history
+            UNION ALL SELECT response_body_id FROM request_history
+            UNION ALL SELECT response_headers_id FROM request_history) refs
+      WHERE id IS NOT NULL
+      GROUP BY id) r
+WHERE b.id = r.id;
+
+-- The sweep now reads ref_count instead of anti-joining request_history
+DROP INDEX idx_request_history_request_body_id;
+DROP INDEX idx_request_history_response_body_id;
+CREATE INDEX idx_history_bodies_unreferenced ON history_bodies(id) WHERE ref_count <= 0;
+
+-- =====================================================
+-- Partition drops release their references
+-- =====================================================
+CREATE OR REPLACE FUNCTION request_history_drop_partitions_before(cutoff_day DATE) RETURNS INT
+    LANGUAGE plpgsql AS $$
+DECLARE
+    dropped INT := 0;
+    part TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('request_history_partitions'));
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'request_history'::REGCLASS
+          AND c.relname ~ '^request_history_p[0-9]{8}$'
+          AND to_date(right(c.relname, 8), 'YYYYMMDD') < cutoff_day
+        ORDER BY c.relname
+    LOOP
+        -- Reads the partition once; no row in request_history is touched
+        EXECUTE format('UPDATE history_bodies b SET ref_count = b.ref_count - r.n
+                        FROM (SELECT id, count(*) AS n
+                              FROM (SELECT request_body_id AS id FROM %1$I
+                                    UNION ALL SELECT response_body_id FROM %1$I
+                                    UNION ALL SELECT response_headers_id FROM %1$I) refs
+                              WHERE id IS NOT NULL
+                              GROUP BY id) r
+                        WHERE b.id = r.id', part);
+        EXECUTE format('ALTER TABLE request_history DETACH PARTITION %I', part);
+        EXECUTE format('DROP TABLE %I', part);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END
+$$;
+
+-- Rollback: restore the V6 request_history_drop_partitions_before, add response_headers
+-- TEXT back and fill it from history_bodies, drop response_headers_id, ref_count and
+-- uk_history_bodies_sha256 (bodies stay shared, which V8 readers handle fine).
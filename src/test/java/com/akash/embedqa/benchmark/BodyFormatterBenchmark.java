@@ -0,0 +1,116 @@
+package com.akash.embedqa.benchmark;
+
+import com.akash.embedqa.utils.BodyFormatter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body pretty-printing: the tree-based approach the executor used before
+ * (parse into Maps/Lists, write back with the default pretty printer) versus token
+ * streaming in {@link BodyFormatter}, for JSON and XML bodies of 1 KB, 1 MB and 50 MB.
+ *
+ * Run from the project root, with {@code -prof gc} for bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *      org.openjdk.jmh.Main BodyFormatterBenchmark -prof gc
+ * </pre>
+ * Add {@code -p payloadBytes=1024} to run a single size.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class BodyFormatterBenchmark {
+
+    @Param({"1024", "1048576", "52428800"})
+    public int payloadBytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final XmlMapper xmlMapper = new XmlMapper();
+
+    private byte[] json;
+    private byte[] xml;
+
+    @Setup
+    public void setUp() {
+        json = jsonPayload(payloadBytes);
+        xml = xmlPayload(payloadBytes);
+    }
+
+    @Benchmark
+    public String jsonTree() throws Exception {
+        // As before: decode, parse into a tree, write a second string
+        String body = new String(json, StandardCharsets.UTF_8);
+        Object tree = objectMapper.readValue(body, Object.class);
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(tree);
+    }
+
+    @Benchmark
+    public String jsonStreaming() {
+        return BodyFormatter.formatJson(json);
+    }
+
+    @Benchmark
+    public String xmlTree() throws Exception {
+        JsonNode tree = xmlMapper.readTree(xml);
+        return xmlMapper.writerWithDefaultPrettyPrinter().writeValueAsString(tree);
+    }
+
+    @Benchmark
+    public String xmlStreaming() {
+        return BodyFormatter.formatXml(xml);
+    }
+
+    // An API-style list of records, padded out to the requested size
+    private static byte[] jsonPayload(int size) {
+        StringBuilder out = new StringBuilder(size + 256).append("{\"items\":[");
+        for (int i = 0; out.length() < size; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"id\":").append(i)
+                    .append(",\"name\":\"user-").append(i)
+                    .append("\",\"email\":\"user").append(i).append("@example.com\"")
+                    .append(",\"active\":").append(i % 3 != 0)
+                    .append(",\"score\":").append(i * 0.25)
+                    .append(",\"tags\":[\"alpha\",\"beta\"],\"address\":{\"city\":\"Dhaka\",\"zip\":\"1207\"}}");
+        }
+        return out.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] xmlPayload(int size) {
+        StringBuilder out = new StringBuilder(size + 256)
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><items>");
+        for (int i = 0; out.length() < size; i++) {
+            out.append("<item id=\"").append(i).append("\">")
+                    .append("<name>user-").append(i).append("</name>")
+                    .append("<email>user").append(i).append("@example.com</email>")
+                    .append("<active>").append(i % 3 != 0).append("</active>")
+                    .append("<address><city>Dhaka</city><zip>1207</zip></address>")
+                    .append("</item>");
+        }
+        return out.append("</items>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,175 @@
+package com.akash.embedqa.benchmark;
+
+import com.akash.embedqa.config.HttpClientConfig;
+import com.akash.embedqa.config.HttpClientRegistry.TransportProfile;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark for the execution modes: platform threads (Tomcat's default
+ * 200-thread pool) versus one virtual thread per execution.
+ *
+ * Local upstreams answer after a fixed delay; every execution is a blocking call
+ * through the pooled client from {@link HttpClientConfig}. For each concurrency
+ * level it prints throughput, p50/p99 latency (measured from admission, so
+ * waiting for a thread counts) and the peak platform thread count.
+ *
+ * The pool is sized to the highest concurrency level by default, so executions
+ * wait on threads rather than on pooled connections; with the application's
+ * limits (100 total, 20 per route) both modes would top out at the same
+ * connection-bound throughput.
+ *
+ * Run from the project root:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *      com.akash.embedqa.benchmark.ExecutionModeLoadBenchmark
+ * </pre>
+ * Tunables: {@code -Dbench.delayMs=100 -Dbench.requests=5000 -Dbench.routes=5
+ * -Dbench.concurrency=100,500,2000}, and the pool limits {@code -Dbench.maxTotal}
+ * and {@code -Dbench.maxPerRoute} (both default to the highest concurrency).
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+public final class ExecutionModeLoadBenchmark {
+
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final byte[] RESPONSE = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ExecutionModeLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int delayMs = Integer.getInteger("bench.delayMs", 100);
+        int requests = Integer.getInteger("bench.requests", 5000);
+        int routes = Integer.getInteger("bench.routes", 5);
+        int[] levels = Arrays.stream(System.getProperty("bench.concurrency", "100,500,2000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        int highest = Arrays.stream(levels).max().orElse(1);
+        int maxTotal = Integer.getInteger("bench.maxTotal", highest);
+        int maxPerRoute = Integer.getInteger("bench.maxPerRoute", maxTotal);
+
+        List<HttpServer> upstreams = startUpstreams(routes, delayMs);
+        try (CloseableHttpClient client = new HttpClientConfig()
+                .httpClient(TransportProfile.VERIFIED, maxTotal, maxPerRoute)) {
+            List<String> urls = upstreams.stream()
+                    .map(server -> "http://127.0.0.1:" + server.getAddress().getPort() + "/")
+                    .toList();
+
+            // Warm up connections and JIT before measuring
+            run("warmup", Executors.newVirtualThreadPerTaskExecutor(), client, urls, 500, 100);
+
+            System.out.printf("pool: %d connections total, %d per route; %d routes, %d ms upstream delay%n",
+                    maxTotal, maxPerRoute, routes, delayMs);
+            System.out.printf("%-10s %11s %12s %9s %9s %13s%n",
+                    "mode", "concurrency", "throughput/s", "p50 ms", "p99 ms", "peak threads");
+            for (int concurrency : levels) {
+                print(run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS),
+                        client, urls, requests, concurrency));
+                print(run("virtual", Executors.newVirtualThreadPerTaskExecutor(),
+                        client, urls, requests, concurrency));
+            }
+        } finally {
+            upstreams.forEach(server -> server.stop(0));
+        }
+    }
+
+    private static Result run(String mode, ExecutorService executor, CloseableHttpClient client,
+                              List<String> urls, int requests, int concurrency) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        Recorder latencies = new Recorder(3);
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < requests; i++) {
+                String url = urls.get(i % urls.size());
+                inFlight.acquire();
+                long admitted = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        client.execute(new HttpGet(url), response -> {
+                            EntityUtils.consume(response.getEntity());
+                            return null;
+                        });
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - admitted));
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Histogram histogram = latencies.getIntervalHistogram();
+
+        return new Result(mode, concurrency, requests / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                threads.getPeakThreadCount(), errors.get());
+    }
+
+    private static List<HttpServer> startUpstreams(int routes, int delayMs) throws Exception {
+        List<HttpServer> servers = new ArrayList<>();
+        for (int i = 0; i < routes; i++) {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, RESPONSE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(RESPONSE);
+                }
+            });
+            server.start();
+            servers.add(server);
+        }
+        return servers;
+    }
+
+    private static void print(Result result) {
+        System.out.printf("%-10s %11d %12.1f %9.1f %9.1f %13d%s%n",
+                result.mode(), result.concurrency(), result.throughput(),
+                result.p50Ms(), result.p99Ms(), result.peakThreads(),
+                result.errors() > 0 ? "  (" + result.errors() + " errors)" : "");
+    }
+
+    private record Result(String mode, int concurrency, double throughput,
+                          double p50Ms, double p99Ms, int peakThreads, int errors) {
+    }
+}
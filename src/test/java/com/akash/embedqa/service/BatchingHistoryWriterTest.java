@@ -0,0 +1,225 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.enums.HistoryOverflowPolicy;
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.service.impl.BatchingHistoryWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchingHistoryWriter Unit Tests")
+class BatchingHistoryWriterTest {
+
+    private static final String BAD_URL = "https://api.example.com/bad";
+
+    @Mock
+    private HistoryService historyService;
+
+    @TempDir
+    private Path spillDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> savedUrls = Collections.synchronizedList(new ArrayList<>());
+
+    private BatchingHistoryWriter writer;
+
+    // The database rejects any batch holding the bad entry
+    private void rejectBadEntries() {
+        doAnswer(invocation -> {
+            List<RequestHistory> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(history -> BAD_URL.equals(history.getUrl()))) {
+                throw new DataIntegrityViolationException("violates check constraint");
+            }
+            batch.forEach(history -> savedUrls.add(history.getUrl()));
+            return batch;
+        }).when(historyService).saveAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Nested
+    @DisplayName("flush()")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should write the rest of a batch when one entry is rejected")
+        void flush_RejectedEntry_WritesNeighbours() {
+            // Arrange
+            rejectBadEntries();
+            writer = writer(HistoryOverflowPolicy.DROP);
+            List.of(history(1), history(2), badHistory(), history(4)).forEach(writer::submit);
+
+            // Act
+            writer.start();
+            writer.stop();
+
+            // Assert
+            assertThat(savedUrls).containsExactlyInAnyOrder(url(1), url(2), url(4));
+            assertThat(failedCount()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should move a rejected entry to the failed file with SPILL")
+        void flush_RejectedEntry_Spill_Quarantines() throws Exception {
+            // Arrange
+            rejectBadEntries();
+            writer = writer(HistoryOverflowPolicy.SPILL);
+            List.of(history(1), badHistory(), history(3), history(4)).forEach(writer::submit);
+
+            // Act
+            writer.start();
+            writer.stop();
+
+            // Assert
+            assertThat(savedUrls).containsExactlyInAnyOrder(url(1), url(3), url(4));
+            assertThat(Files.readAllLines(spillDir.resolve("history.failed"))).singleElement()
+                    .satisfies(line -> assertThat(line).contains(BAD_URL));
+            assertThat(spillFiles()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not split a batch when the database is unreachable")
+        void flush_DatabaseDown_FailsBatchOnce() {
+            // Arrange
+            doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                    .when(historyService).saveAll(anyList());
+            writer = writer(HistoryOverflowPolicy.DROP);
+            List.of(history(1), history(2), history(3), history(4)).forEach(writer::submit);
+
+            // Act
+            writer.start();
+            writer.stop();
+
+            // Assert
+            verify(historyService, times(1)).saveAll(anyList());
+            assertThat(failedCount()).isEqualTo(4.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("replay")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should quarantine a line cut short by a crash and replay the rest")
+        void replay_TruncatedLine_ReplaysRest() throws Exception {
+            // Arrange
+            rejectBadEntries();
+            Path file = spillDir.resolve("history-1.jsonl");
+            String cut = objectMapper.writeValueAsString(history(3));
+            Files.write(file, List.of(line(history(1)), line(history(2)), cut.substring(0, cut.length() / 2)),
+                    StandardCharsets.UTF_8);
+            writer = writer(HistoryOverflowPolicy.SPILL);
+
+            // Act
+            writer.start();
+            await().atMost(Duration.ofSeconds(5)).until(() -> !Files.exists(file));
+
+            // Assert
+            assertThat(savedUrls).containsExactly(url(1), url(2));
+            assertThat(Files.readAllLines(spillDir.resolve("history.failed")))
+                    .containsExactly(cut.substring(0, cut.length() / 2));
+        }
+
+        @Test
+        @DisplayName("Should quarantine a rejected entry and go on to later spill files")
+        void replay_RejectedEntry_ContinuesWithNextFile() throws Exception {
+            // Arrange
+            rejectBadEntries();
+            Path first = spillDir.resolve("history-1.jsonl");
+            Path second = spillDir.resolve("history-2.jsonl");
+            Files.write(first, List.of(line(history(1)), line(badHistory()), line(history(3))),
+                    StandardCharsets.UTF_8);
+            Files.write(second, List.of(line(history(4))), StandardCharsets.UTF_8);
+            writer = writer(HistoryOverflowPolicy.SPILL);
+
+            // Act
+            writer.start();
+            await().atMost(Duration.ofSeconds(5)).until(() -> spillFiles().isEmpty());
+
+            // Assert
+            assertThat(savedUrls).containsExactlyInAnyOrder(url(1), url(3), url(4));
+            assertThat(Files.readAllLines(spillDir.resolve("history.failed"))).singleElement()
+                    .satisfies(line -> assertThat(line).contains(BAD_URL));
+        }
+    }
+
+    private BatchingHistoryWriter writer(HistoryOverflowPolicy policy) {
+        return new BatchingHistoryWriter(historyService, objectMapper, meterRegistry,
+                100, 4, 50, policy, spillDir);
+    }
+
+    private double failedCount() {
+        return meterRegistry.get("embedqa.history.failed").counter().count();
+    }
+
+    private List<Path> spillFiles() throws Exception {
+        try (var files = Files.list(spillDir)) {
+            return files.filter(file -> file.toString().endsWith(".jsonl")).toList();
+        }
+    }
+
+    private String line(RequestHistory history) throws Exception {
+        return objectMapper.writeValueAsString(history);
+    }
+
+    private static String url(int n) {
+        return "https://api.example.com/items/" + n;
+    }
+
+    private static RequestHistory history(int n) {
+        return RequestHistory.builder()
+                .url(url(n))
+                .method(HttpMethod.GET)
+                .statusCode(200)
+                .responseTime(10L)
+                .build();
+    }
+
+    // A failed execution, stored with status 0
+    private static RequestHistory badHistory() {
+        return RequestHistory.builder()
+                .url(BAD_URL)
+                .method(HttpMethod.GET)
+                .statusCode(0)
+                .build();
+    }
+}
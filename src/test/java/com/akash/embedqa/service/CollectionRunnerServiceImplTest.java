@@ -0,0 +1,223 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.config.HttpClientRegistry;
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.enums.RunMode;
+import com.akash.embedqa.enums.RunOutcome;
+import com.akash.embedqa.model.dtos.request.CollectionRunDTO;
+import com.akash.embedqa.model.dtos.request.ExecuteRequestDTO;
+import com.akash.embedqa.model.dtos.response.ApiResponseDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunReportDTO;
+import com.akash.embedqa.model.dtos.response.CollectionRunResultDTO;
+import com.akash.embedqa.model.entities.ApiCollection;
+import com.akash.embedqa.model.entities.ApiRequest;
+import com.akash.embedqa.repository.ApiCollectionRepository;
+import com.akash.embedqa.repository.ApiRequestRepository;
+import com.akash.embedqa.service.impl.CollectionRunnerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CollectionRunnerService Unit Tests")
+class CollectionRunnerServiceImplTest {
+
+    private static final Long COLLECTION_ID = 1L;
+    // Requests to this path answer 500
+    private static final String FAILING_PATH = "/fail";
+
+    @Mock
+    private ApiCollectionRepository collectionRepository;
+
+    @Mock
+    private ApiRequestRepository apiRequestRepository;
+
+    @Mock
+    private ApiExecutorService apiExecutorService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private HttpClientRegistry httpClientRegistry;
+
+    private CollectionRunnerServiceImpl runnerService;
+
+    @BeforeEach
+    void setUp() {
+        // Runs each execution on the calling thread, so waves execute in order
+        runnerService = new CollectionRunnerServiceImpl(collectionRepository, apiRequestRepository,
+                apiExecutorService, transactionTemplate, httpClientRegistry, Runnable::run);
+
+        when(collectionRepository.findById(COLLECTION_ID)).thenReturn(Optional.of(
+                ApiCollection.builder().id(COLLECTION_ID).name("Orders").build()));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(httpClientRegistry.maxPerRoute()).thenReturn(20);
+    }
+
+    @Nested
+    @DisplayName("run() DEPENDENCY_ORDERED")
+    class DependencyOrderedTests {
+
+        @Test
+        @DisplayName("Should run requests after the ones they depend on")
+        void run_ExecutesInDependencyOrder() {
+            // Arrange
+            collection(request(1L, "/login"), request(2L, "/orders"), request(3L, "/items"));
+            stubExecutions();
+
+            // Act
+            CollectionRunReportDTO report = runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(1L, List.of(2L), 2L, List.of(3L))));
+
+            // Assert
+            ArgumentCaptor<ExecuteRequestDTO> captor = ArgumentCaptor.forClass(ExecuteRequestDTO.class);
+            verify(apiExecutorService, times(3)).executeAndSaveAsync(captor.capture(), eq(true));
+            assertThat(captor.getAllValues()).extracting(ExecuteRequestDTO::getUrl)
+                    .containsExactly(url("/items"), url("/orders"), url("/login"));
+            // Results keep the collection's order
+            assertThat(report.getResults()).extracting(CollectionRunResultDTO::getRequestId)
+                    .containsExactly(1L, 2L, 3L);
+            assertThat(report.getPassed()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should skip everything downstream of a failed request")
+        void run_FailedDependency_SkipsChain() {
+            // Arrange
+            collection(request(1L, FAILING_PATH), request(2L, "/orders"), request(3L, "/items"),
+                    request(4L, "/health"));
+            stubExecutions();
+
+            // Act
+            CollectionRunReportDTO report = runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(2L, List.of(1L), 3L, List.of(2L))));
+
+            // Assert
+            List<CollectionRunResultDTO> results = report.getResults();
+            assertThat(results).extracting(CollectionRunResultDTO::getOutcome).containsExactly(
+                    RunOutcome.FAILED, RunOutcome.SKIPPED, RunOutcome.SKIPPED, RunOutcome.PASSED);
+            assertThat(results.get(1).getErrorMessage()).isEqualTo("Skipped: dependency 1 did not pass");
+            assertThat(results.get(2).getErrorMessage()).isEqualTo("Skipped: dependency 2 did not pass");
+            assertThat(report.getSkipped()).isEqualTo(2);
+            verify(apiExecutorService, times(2)).executeAndSaveAsync(any(), anyBoolean());
+        }
+
+        @Test
+        @DisplayName("Should reject a dependency cycle before executing anything")
+        void run_Cycle_ThrowsException() {
+            // Arrange
+            collection(request(1L, "/a"), request(2L, "/b"), request(3L, "/c"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(1L, List.of(3L), 2L, List.of(1L), 3L, List.of(2L)))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("Dependency cycle between requests");
+            verifyNoInteractions(apiExecutorService);
+        }
+
+        @Test
+        @DisplayName("Should reject a request that depends on itself")
+        void run_SelfDependency_ThrowsException() {
+            // Arrange
+            collection(request(1L, "/a"), request(2L, "/b"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(2L, List.of(2L)))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Dependency cycle between requests: [2]");
+            verifyNoInteractions(apiExecutorService);
+        }
+
+        @Test
+        @DisplayName("Should reject dependencies for a request outside the collection")
+        void run_UnknownRequest_ThrowsException() {
+            // Arrange
+            collection(request(1L, "/a"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(99L, List.of(1L)))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Request 99 is not part of this collection");
+            verifyNoInteractions(apiExecutorService);
+        }
+
+        @Test
+        @DisplayName("Should reject a dependency outside the collection")
+        void run_UnknownDependency_ThrowsException() {
+            // Arrange
+            collection(request(1L, "/a"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> runnerService.run(COLLECTION_ID,
+                    dependencyOrdered(Map.of(1L, List.of(99L)))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Dependency 99 of request 1 is not part of this collection");
+            verifyNoInteractions(apiExecutorService);
+        }
+    }
+
+    private void collection(ApiRequest... requests) {
+        when(apiRequestRepository.findAllByCollectionIdWithHeaders(COLLECTION_ID)).thenReturn(List.of(requests));
+    }
+
+    // 500 for the failing path, 200 otherwise
+    private void stubExecutions() {
+        when(apiExecutorService.executeAndSaveAsync(any(), anyBoolean())).thenAnswer(invocation -> {
+            ExecuteRequestDTO request = invocation.getArgument(0);
+            boolean failing = request.getUrl().endsWith(FAILING_PATH);
+            return CompletableFuture.completedFuture(ApiResponseDTO.builder()
+                    .statusCode(failing ? 500 : 200)
+                    .success(true)
+                    .requestUrl(request.getUrl())
+                    .responseTimeMs(10L)
+                    .build());
+        });
+    }
+
+    private static CollectionRunDTO dependencyOrdered(Map<Long, List<Long>> dependencies) {
+        return CollectionRunDTO.builder()
+                .mode(RunMode.DEPENDENCY_ORDERED)
+                .dependencies(dependencies)
+                .build();
+    }
+
+    private static ApiRequest request(Long id, String path) {
+        return ApiRequest.builder()
+                .id(id)
+                .name("Request " + id)
+                .url(url(path))
+                .method(HttpMethod.GET)
+                .build();
+    }
+
+    private static String url(String path) {
+        return "https://api.example.com" + path;
+    }
+}
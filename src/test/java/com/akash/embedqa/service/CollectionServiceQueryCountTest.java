@@ -0,0 +1,189 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.audit.AuditAwareImpl;
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.model.dtos.response.CollectionIndexDTO;
+import com.akash.embedqa.model.dtos.response.CollectionResponseDTO;
+import com.akash.embedqa.model.dtos.response.RequestSummaryDTO;
+import com.akash.embedqa.model.entities.ApiCollection;
+import com.akash.embedqa.model.entities.ApiRequest;
+import com.akash.embedqa.service.impl.CollectionServiceImpl;
+import com.akash.embedqa.utils.IdCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the number of SQL statements behind the collection listings, which must not
+ * grow with the number of collections or requests.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@DataJpaTest(properties = {
+        // application.yml leaves the profile as an unfiltered Maven placeholder
+        "spring.profiles.active=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CollectionServiceImpl.class, AuditAwareImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("CollectionService Query Count Tests")
+class CollectionServiceQueryCountTest {
+
+    private static final int COLLECTIONS = 20;
+    private static final int REQUESTS_PER_COLLECTION = 5;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @MockitoBean
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired
+    private CollectionService collectionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int c = 0; c < COLLECTIONS; c++) {
+            ApiCollection collection = ApiCollection.builder()
+                    .name("Collection " + c)
+                    .build();
+            for (int r = 0; r < REQUESTS_PER_COLLECTION; r++) {
+                collection.addRequest(ApiRequest.builder()
+                        .name("Request " + c + "-" + r)
+                        .url("https://api.example.com/items/" + r)
+                        .method(HttpMethod.GET)
+                        .build());
+            }
+            entityManager.persist(collection);
+        }
+        // An empty collection and a request outside any collection
+        entityManager.persist(ApiCollection.builder().name("Empty").build());
+        entityManager.persist(ApiRequest.builder()
+                .name("Loose")
+                .url("https://api.example.com/loose")
+                .method(HttpMethod.POST)
+                .build());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should list all collections with two statements")
+    void shouldListCollectionsWithTwoStatements() {
+        // Act
+        List<CollectionResponseDTO> collections = collectionService.getAll();
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(collections).hasSize(COLLECTIONS + 1);
+        CollectionResponseDTO first = collections.get(0);
+        assertThat(first.getRequestCount()).isEqualTo(REQUESTS_PER_COLLECTION);
+        assertThat(first.getRequests()).hasSize(REQUESTS_PER_COLLECTION)
+                .allSatisfy(request -> {
+                    assertThat(request.getCollectionId()).isEqualTo(first.getId());
+                    assertThat(request.getCollectionName()).isEqualTo(first.getName());
+                });
+        CollectionResponseDTO empty = collections.get(COLLECTIONS);
+        assertThat(empty.getRequestCount()).isZero();
+        assertThat(empty.getRequests()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should load one collection with two statements")
+    void shouldLoadCollectionWithTwoStatements() {
+        // Arrange
+        Long id = collectionService.getAll().get(3).getId();
+        statistics.clear();
+
+        // Act
+        CollectionResponseDTO collection = collectionService.getById(id);
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(collection.getRequestCount()).isEqualTo(REQUESTS_PER_COLLECTION);
+        assertThat(collection.getRequests()).extracting("name")
+                .containsExactly("Request 3-0", "Request 3-1", "Request 3-2", "Request 3-3", "Request 3-4");
+    }
+
+    @Test
+    @DisplayName("Should build the index with one statement")
+    void shouldBuildIndexWithOneStatement() {
+        // Act
+        List<CollectionIndexDTO> index = collectionService.getIndex();
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(index).hasSize(COLLECTIONS + 1);
+        assertThat(index.get(0).getName()).isEqualTo("Collection 0");
+        assertThat(index.get(0).getRequestCount()).isEqualTo(REQUESTS_PER_COLLECTION);
+        assertThat(index.get(COLLECTIONS).getRequestCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should page through a collection's requests with two statements per page")
+    void shouldPageThroughRequests() {
+        // Arrange
+        Long id = collectionService.getIndex().get(3).getId();
+        statistics.clear();
+
+        // Act
+        Slice<RequestSummaryDTO> first = collectionService.getRequestsAfter(id, null, 2);
+        Slice<RequestSummaryDTO> second = collectionService.getRequestsAfter(id, cursorAfter(first), 2);
+        Slice<RequestSummaryDTO> last = collectionService.getRequestsAfter(id, cursorAfter(second), 2);
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.hasNext()).isTrue();
+        assertThat(last.hasNext()).isFalse();
+        assertThat(List.of(first, second, last))
+                .flatExtracting(Slice::getContent)
+                .extracting("name")
+                .containsExactly("Request 3-0", "Request 3-1", "Request 3-2", "Request 3-3", "Request 3-4");
+        assertThat(first.getContent().get(0).getCollectionName()).isEqualTo("Collection 3");
+    }
+
+    private static String cursorAfter(Slice<RequestSummaryDTO> slice) {
+        return new IdCursor(slice.getContent().getLast().getId()).encode();
+    }
+}
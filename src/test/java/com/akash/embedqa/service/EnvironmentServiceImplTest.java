@@ -0,0 +1,175 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.enums.CacheTopic;
+import com.akash.embedqa.model.dtos.request.EnvironmentDTO;
+import com.akash.embedqa.model.dtos.request.EnvironmentVariableDTO;
+import com.akash.embedqa.model.entities.Environment;
+import com.akash.embedqa.repository.EnvironmentRepository;
+import com.akash.embedqa.service.impl.EnvironmentServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EnvironmentService Unit Tests")
+class EnvironmentServiceImplTest {
+
+    @Mock
+    private EnvironmentRepository environmentRepository;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private EnvironmentServiceImpl environmentService;
+
+    private Environment testEnvironment;
+
+    @BeforeEach
+    void setUp() {
+        environmentService = new EnvironmentServiceImpl(environmentRepository, new ObjectMapper(),
+                invalidationBus, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+        testEnvironment = Environment.builder()
+                .id(1L)
+                .name("Staging")
+                .version(0L)
+                .variablesJson(List.of(
+                        variable("baseUrl", "https://staging.example.com", true),
+                        variable("token", "secret", false)))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("getVariablesAsMap")
+    class GetVariablesAsMapTests {
+
+        @Test
+        @DisplayName("Should load an environment once for repeated executions")
+        void shouldLoadOnceForRepeatedExecutions() {
+            // Arrange
+            when(environmentRepository.findById(1L)).thenReturn(Optional.of(testEnvironment));
+
+            // Act
+            Map<String, String> variables = null;
+            for (int i = 0; i < 1000; i++) {
+                variables = environmentService.getVariablesAsMap(1L);
+            }
+
+            // Assert
+            assertThat(variables).containsExactly(Map.entry("baseUrl", "https://staging.example.com"));
+            assertThatThrownBy(variables::clear).isInstanceOf(UnsupportedOperationException.class);
+            verify(environmentRepository, times(1)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("Should not cache unknown environments")
+        void shouldNotCacheUnknownEnvironments() {
+            // Arrange
+            when(environmentRepository.findById(99L)).thenReturn(Optional.empty());
+
+            // Act
+            environmentService.getVariablesAsMap(99L);
+            Map<String, String> variables = environmentService.getVariablesAsMap(99L);
+
+            // Assert
+            assertThat(variables).isEmpty();
+            verify(environmentRepository, times(2)).findById(99L);
+        }
+
+        @Test
+        @DisplayName("Should serve the updated variables without reloading")
+        void shouldServeUpdatedVariables() {
+            // Arrange
+            when(environmentRepository.findById(1L)).thenReturn(Optional.of(testEnvironment));
+            when(environmentRepository.saveAndFlush(any(Environment.class))).thenAnswer(invocation -> {
+                Environment saved = invocation.getArgument(0);
+                saved.setVersion(saved.getVersion() + 1);
+                return saved;
+            });
+            environmentService.getVariablesAsMap(1L);
+
+            EnvironmentDTO dto = EnvironmentDTO.builder()
+                    .name("Staging")
+                    .variables(List.of(variable("baseUrl", "https://staging-2.example.com", true)))
+                    .build();
+
+            // Act
+            environmentService.update(1L, dto);
+            Map<String, String> variables = environmentService.getVariablesAsMap(1L);
+
+            // Assert
+            assertThat(variables).containsExactly(Map.entry("baseUrl", "https://staging-2.example.com"));
+            // One load for the first execution, one for the update itself
+            verify(environmentRepository, times(2)).findById(1L);
+            verify(invalidationBus).publish(CacheTopic.ENVIRONMENT, 1L);
+        }
+
+        @Test
+        @DisplayName("Should reload after another instance changes the environment")
+        void shouldReloadAfterRemoteInvalidation() {
+            // Arrange
+            ArgumentCaptor<CacheInvalidationBus.Listener> listenerCaptor =
+                    ArgumentCaptor.forClass(CacheInvalidationBus.Listener.class);
+            verify(invalidationBus).subscribe(eq(CacheTopic.ENVIRONMENT), listenerCaptor.capture());
+            when(environmentRepository.findById(1L)).thenReturn(Optional.of(testEnvironment));
+            environmentService.getVariablesAsMap(1L);
+
+            // Act
+            listenerCaptor.getValue().evict(1L);
+            environmentService.getVariablesAsMap(1L);
+
+            // Assert
+            verify(environmentRepository, times(2)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("Should reload after the environment is deleted")
+        void shouldReloadAfterDelete() {
+            // Arrange
+            when(environmentRepository.findById(1L))
+                    .thenReturn(Optional.of(testEnvironment))
+                    .thenReturn(Optional.empty());
+            when(environmentRepository.existsById(1L)).thenReturn(true);
+            environmentService.getVariablesAsMap(1L);
+
+            // Act
+            environmentService.delete(1L);
+            Map<String, String> variables = environmentService.getVariablesAsMap(1L);
+
+            // Assert
+            assertThat(variables).isEmpty();
+            verify(environmentRepository).deleteById(1L);
+            verify(environmentRepository, times(2)).findById(1L);
+        }
+    }
+
+    private static EnvironmentVariableDTO variable(String name, String value, boolean enabled) {
+        return EnvironmentVariableDTO.builder()
+                .name(name)
+                .value(value)
+                .enabled(enabled)
+                .build();
+    }
+}
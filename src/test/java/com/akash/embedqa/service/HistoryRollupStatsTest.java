@@ -0,0 +1,111 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.audit.AuditAwareImpl;
+import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
+import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.repository.HistoryRollupRepository;
+import com.akash.embedqa.service.impl.HistoryServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that statistics served from the rollup tables follow deletes of single
+ * history entries.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({HistoryServiceImpl.class, HistoryRollupRepository.class, AuditAwareImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("HistoryService Rollup Stats Tests")
+class HistoryRollupStatsTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @MockitoBean
+    private HistoryBodyStore bodyStore;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Test
+    @DisplayName("Should stop counting an entry once it is deleted")
+    void deleteById_UpdatesRollupStats() {
+        // Arrange
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        List<RequestHistory> saved = historyService.saveAll(List.of(
+                history(HttpMethod.GET, 200, 100L, minute),
+                history(HttpMethod.GET, 200, 300L, minute),
+                history(HttpMethod.POST, 500, 5_000L, minute)));
+
+        // Act
+        historyService.deleteById(saved.get(2).getId());
+        HistoryService.HistoryStats stats = historyService.getStats(HistoryFilterDTO.none());
+
+        // Assert
+        assertThat(stats.totalRequests()).isEqualTo(2L);
+        assertThat(stats.successCount()).isEqualTo(2L);
+        assertThat(stats.errorCount()).isZero();
+        assertThat(stats.avgResponseTime()).isEqualTo(200.0);
+        // The 5 s entry no longer shows in the sketch
+        assertThat(stats.p99ResponseTime()).isLessThan(1_000.0);
+        assertThat(stats.methodBreakdown()).containsOnlyKeys("GET").containsEntry("GET", 2L);
+    }
+
+    @Test
+    @DisplayName("Should report no requests after the last entry is deleted")
+    void deleteById_LastEntry_EmptiesStats() {
+        // Arrange
+        RequestHistory saved = historyService.saveHistory(
+                history(HttpMethod.GET, 404, 50L, LocalDateTime.now()));
+
+        // Act
+        historyService.deleteById(saved.getId());
+        HistoryService.HistoryStats stats = historyService.getStats(HistoryFilterDTO.none());
+
+        // Assert
+        assertThat(stats.totalRequests()).isZero();
+        assertThat(stats.methodBreakdown()).isEmpty();
+    }
+
+    private static RequestHistory history(HttpMethod method, int statusCode, long responseTime,
+                                          LocalDateTime executedAt) {
+        return RequestHistory.builder()
+                .url("https://api.example.com/items")
+                .method(method)
+                .statusCode(statusCode)
+                .responseTime(responseTime)
+                .executedAt(executedAt)
+                .build();
+    }
+}
@@ -1,13 +1,21 @@
 package com.akash.embedqa.service;
 
+import com.akash.embedqa.enums.BodyFormat;
 import com.akash.embedqa.enums.HttpMethod;
+import com.akash.embedqa.enums.RollupInterval;
 import com.akash.embedqa.exception.ResourceNotFoundException;
+import com.akash.embedqa.model.dtos.request.HistoryFilterDTO;
 import com.akash.embedqa.model.dtos.response.HistoryResponseDTO;
+import com.akash.embedqa.model.dtos.response.HistoryTimeSeriesPointDTO;
 import com.akash.embedqa.model.entities.ApiCollection;
 import com.akash.embedqa.model.entities.ApiRequest;
 import com.akash.embedqa.model.entities.RequestHistory;
+import com.akash.embedqa.repository.HistoryRollupRepository;
 import com.akash.embedqa.repository.RequestHistoryRepository;
+import com.akash.embedqa.repository.RequestHistoryRepositoryCustom;
+import com.akash.embedqa.service.HistoryBodyStore;
 import com.akash.embedqa.service.impl.HistoryServiceImpl;
+import com.akash.embedqa.utils.HistoryCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -24,8 +33,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -46,6 +56,12 @@ class HistoryServiceImplTest {
     @Mock
     private RequestHistoryRepository historyRepository;
 
+    @Mock
+    private HistoryRollupRepository rollupRepository;
+
+    @Mock
+    private HistoryBodyStore bodyStore;
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -79,12 +95,21 @@ class HistoryServiceImplTest {
                 .statusText("OK")
                 .responseHeaders("{\"Content-Type\":\"application/json\"}")
                 .responseBody("{\"users\":[]}")
+                .responseBodyId(11L)
+                .responseHeadersId(12L)
                 .responseTime(150L)
                 .responseSize(100L)
                 .executedAt(now)
                 .build();
     }
 
+    private static RequestHistoryRepositoryCustom.HistorySummary summaryOf(RequestHistory history) {
+        return new RequestHistoryRepositoryCustom.HistorySummary(
+                history.getId(), history.getUrl(), history.getMethod(), history.getStatusCode(),
+                history.getStatusText(), history.getResponseTime(), history.getResponseSize(),
+                history.getExecutedAt(), null, null);
+    }
+
     @Nested
     @DisplayName("saveHistory() Tests")
     class SaveHistoryTests {
@@ -122,6 +147,36 @@ class HistoryServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("saveAll() Tests")
+    class SaveAllTests {
+
+        @Test
+        @DisplayName("Should save a batch in a single repository call")
+        void saveAll_SavesBatch() {
+            // Arrange
+            RequestHistory second = RequestHistory.builder()
+                    .url("https://api.example.com/orders")
+                    .method(HttpMethod.POST)
+                    .statusCode(201)
+                    .responseTime(80L)
+                    .executedAt(now)
+                    .build();
+            List<RequestHistory> batch = List.of(testHistory, second);
+            when(historyRepository.saveAll(batch)).thenReturn(batch);
+
+            // Act
+            List<RequestHistory> result = historyService.saveAll(batch);
+
+            // Assert
+            assertThat(result).hasSize(2);
+            InOrder order = inOrder(bodyStore, historyRepository);
+            order.verify(bodyStore).storeBodies(batch);
+            order.verify(historyRepository).saveAll(batch);
+            verify(historyRepository, never()).save(any(RequestHistory.class));
+        }
+    }
+
     @Nested
     @DisplayName("getHistory() Tests")
     class GetHistoryTests {
@@ -131,10 +186,10 @@ class HistoryServiceImplTest {
         void getHistory_ReturnsPaginatedHistory() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            List<RequestHistory> histories = List.of(testHistory);
-            Page<RequestHistory> historyPage = new PageImpl<>(histories, pageable, 1);
+            List<RequestHistoryRepositoryCustom.HistorySummary> histories = List.of(summaryOf(testHistory));
+            Page<RequestHistoryRepositoryCustom.HistorySummary> historyPage = new PageImpl<>(histories, pageable, 1);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(historyPage);
 
             // Act
@@ -148,14 +203,37 @@ class HistoryServiceImplTest {
             assertThat(result.getContent().get(0).getUrl()).isEqualTo("https://api.example.com/users");
         }
 
+        @Test
+        @DisplayName("Should map joined request and collection names")
+        void getHistory_MapsJoinedNames() {
+            // Arrange
+            Pageable pageable = PageRequest.of(0, 10);
+            RequestHistoryRepositoryCustom.HistorySummary summary = new RequestHistoryRepositoryCustom.HistorySummary(
+                    1L, "https://api.example.com/users", HttpMethod.GET, 200, "OK", 150L, null, now,
+                    "List users", "Users API");
+            when(historyRepository.findSummaries(HistoryFilterDTO.none(), pageable))
+                    .thenReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+            // Act
+            Page<HistoryResponseDTO> result = historyService.getHistory(null, null, null, null, null, pageable);
+
+            // Assert
+            HistoryResponseDTO dto = result.getContent().get(0);
+            assertThat(dto.getRequestName()).isEqualTo("List users");
+            assertThat(dto.getCollectionName()).isEqualTo("Users API");
+            assertThat(dto.getResponseSize()).isNull();
+            assertThat(dto.getRequest()).isNull();
+            assertThat(dto.getResponse()).isNull();
+        }
+
         @Test
         @DisplayName("Should filter by HTTP method")
         void getHistory_WithMethodFilter_FiltersResults() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(emptyPage);
 
             // Act
@@ -164,7 +242,7 @@ class HistoryServiceImplTest {
             );
 
             // Assert
-            verify(historyRepository).findAll(any(Specification.class), eq(pageable));
+            verify(historyRepository).findSummaries(any(HistoryFilterDTO.class), eq(pageable));
         }
 
         @Test
@@ -172,9 +250,9 @@ class HistoryServiceImplTest {
         void getHistory_WithStatusCode200_FiltersSuccessRange() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> page = new PageImpl<>(List.of(testHistory), pageable, 1);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> page = new PageImpl<>(List.of(summaryOf(testHistory)), pageable, 1);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(page);
 
             // Act
@@ -191,9 +269,9 @@ class HistoryServiceImplTest {
         void getHistory_WithStatusCode400_FiltersErrorRange() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(emptyPage);
 
             // Act
@@ -202,7 +280,7 @@ class HistoryServiceImplTest {
             );
 
             // Assert
-            verify(historyRepository).findAll(any(Specification.class), eq(pageable));
+            verify(historyRepository).findSummaries(any(HistoryFilterDTO.class), eq(pageable));
         }
 
         @Test
@@ -210,9 +288,9 @@ class HistoryServiceImplTest {
         void getHistory_WithSearchFilter_FiltersResults() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> page = new PageImpl<>(List.of(testHistory), pageable, 1);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> page = new PageImpl<>(List.of(summaryOf(testHistory)), pageable, 1);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(page);
 
             // Act
@@ -231,9 +309,9 @@ class HistoryServiceImplTest {
             Pageable pageable = PageRequest.of(0, 10);
             LocalDateTime fromDate = now.minusDays(7);
             LocalDateTime toDate = now;
-            Page<RequestHistory> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(emptyPage);
 
             // Act
@@ -242,7 +320,7 @@ class HistoryServiceImplTest {
             );
 
             // Assert
-            verify(historyRepository).findAll(any(Specification.class), eq(pageable));
+            verify(historyRepository).findSummaries(any(HistoryFilterDTO.class), eq(pageable));
         }
 
         @Test
@@ -250,9 +328,9 @@ class HistoryServiceImplTest {
         void getHistory_WhenEmpty_ReturnsEmptyPage() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(emptyPage);
 
             // Act
@@ -272,9 +350,9 @@ class HistoryServiceImplTest {
             Pageable pageable = PageRequest.of(0, 10);
             LocalDateTime fromDate = now.minusDays(7);
             LocalDateTime toDate = now;
-            Page<RequestHistory> page = new PageImpl<>(List.of(testHistory), pageable, 1);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> page = new PageImpl<>(List.of(summaryOf(testHistory)), pageable, 1);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(page);
 
             // Act
@@ -284,7 +362,56 @@ class HistoryServiceImplTest {
 
             // Assert
             assertThat(result.getContent()).hasSize(1);
-            verify(historyRepository).findAll(any(Specification.class), eq(pageable));
+            verify(historyRepository).findSummaries(any(HistoryFilterDTO.class), eq(pageable));
+        }
+    }
+
+    @Nested
+    @DisplayName("getHistoryAfter() Tests")
+    class GetHistoryAfterTests {
+
+        @Test
+        @DisplayName("Should fetch one extra row to detect the next page")
+        void getHistoryAfter_WithMoreRows_HasNext() {
+            // Arrange
+            RequestHistory older = RequestHistory.builder()
+                    .id(2L).url("https://api.example.com/orders").method(HttpMethod.POST)
+                    .statusCode(201).responseTime(80L).executedAt(now.minusSeconds(5)).build();
+            when(historyRepository.findSummariesAfter(HistoryFilterDTO.none(), null, 2))
+                    .thenReturn(List.of(summaryOf(testHistory), summaryOf(older)));
+
+            // Act
+            Slice<HistoryResponseDTO> slice = historyService.getHistoryAfter(HistoryFilterDTO.none(), "", 1);
+
+            // Assert
+            assertThat(slice.getContent()).extracting(HistoryResponseDTO::getId).containsExactly(1L);
+            assertThat(slice.hasNext()).isTrue();
+            verify(historyRepository, never()).count();
+        }
+
+        @Test
+        @DisplayName("Should seek after the decoded cursor")
+        void getHistoryAfter_WithCursor_SeeksAfterIt() {
+            // Arrange
+            HistoryCursor cursor = new HistoryCursor(now, 42L);
+            when(historyRepository.findSummariesAfter(HistoryFilterDTO.none(), cursor, 21)).thenReturn(List.of(summaryOf(testHistory)));
+
+            // Act
+            Slice<HistoryResponseDTO> slice = historyService.getHistoryAfter(HistoryFilterDTO.none(), cursor.encode(), 20);
+
+            // Assert
+            assertThat(slice.getContent()).hasSize(1);
+            assertThat(slice.hasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void getHistoryAfter_WithBadCursor_Throws() {
+            // Act & Assert
+            assertThatThrownBy(() -> historyService.getHistoryAfter(HistoryFilterDTO.none(), "not-a-cursor", 20))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("cursor");
+            verifyNoInteractions(historyRepository);
         }
     }
 
@@ -327,6 +454,13 @@ class HistoryServiceImplTest {
         void getById_ReturnsWithDetails() {
             // Arrange
             when(historyRepository.findById(1L)).thenReturn(Optional.of(testHistory));
+            Map<Long, String> bodies = Map.of(
+                    11L, "{\"users\":[]}",
+                    12L, "{\"Content-Type\":\"application/json\"}");
+            when(bodyStore.load(any())).thenAnswer(invocation -> {
+                Long id = invocation.getArgument(0);
+                return id != null ? bodies.get(id) : null;
+            });
 
             // Act
             HistoryResponseDTO result = historyService.getById(1L);
@@ -342,6 +476,7 @@ class HistoryServiceImplTest {
             assertThat(result.getResponse().getStatusCode()).isEqualTo(200);
             assertThat(result.getResponse().getStatusText()).isEqualTo("OK");
             assertThat(result.getResponse().getBody()).isEqualTo("{\"users\":[]}");
+            assertThat(result.getResponse().getHeaders()).containsEntry("Content-Type", "application/json");
             assertThat(result.getResponse().getResponseTime()).isEqualTo(150L);
             assertThat(result.getResponse().getResponseSize()).isEqualTo(100L);
         }
@@ -382,7 +517,7 @@ class HistoryServiceImplTest {
             // Arrange
             testHistory.setRequestHeaders(null);
             testHistory.setQueryParams(null);
-            testHistory.setResponseHeaders(null);
+            testHistory.setResponseHeadersId(null);
             testHistory.setAuthConfig(null);
             when(historyRepository.findById(1L)).thenReturn(Optional.of(testHistory));
 
@@ -441,6 +576,52 @@ class HistoryServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("getResponseBody() Tests")
+    class GetResponseBodyTests {
+
+        @Test
+        @DisplayName("Should return the stored body unchanged for RAW")
+        void getResponseBody_Raw_ReturnsStoredBody() {
+            // Arrange
+            when(historyRepository.findById(1L)).thenReturn(Optional.of(testHistory));
+            when(bodyStore.load(11L)).thenReturn("{\"users\":[]}");
+
+            // Act
+            String result = historyService.getResponseBody(1L, BodyFormat.RAW);
+
+            // Assert
+            assertThat(result).isEqualTo("{\"users\":[]}");
+            verify(bodyStore, never()).loadFormatted(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should format for the stored Content-Type header for PRETTY")
+        void getResponseBody_Pretty_FormatsForContentType() {
+            // Arrange
+            when(historyRepository.findById(1L)).thenReturn(Optional.of(testHistory));
+            when(bodyStore.load(12L)).thenReturn("{\"content-type\":\"application/json\"}");
+            when(bodyStore.loadFormatted(11L, "application/json")).thenReturn("{\n  \"users\" : [ ]\n}");
+
+            // Act
+            String result = historyService.getResponseBody(1L, BodyFormat.PRETTY);
+
+            // Assert
+            assertThat(result).isEqualTo("{\n  \"users\" : [ ]\n}");
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when not found")
+        void getResponseBody_WhenNotFound_ThrowsException() {
+            // Arrange
+            when(historyRepository.findById(999L)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatThrownBy(() -> historyService.getResponseBody(999L, BodyFormat.PRETTY))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
     @Nested
     @DisplayName("deleteById() Tests")
     class DeleteByIdTests {
@@ -449,22 +630,22 @@ class HistoryServiceImplTest {
         @DisplayName("Should delete history entry when found")
         void deleteById_WhenExists_DeletesEntry() {
             // Arrange
-            when(historyRepository.existsById(1L)).thenReturn(true);
-            doNothing().when(historyRepository).deleteById(1L);
+            when(historyRepository.findById(1L)).thenReturn(Optional.of(testHistory));
 
             // Act
             historyService.deleteById(1L);
 
             // Assert
-            verify(historyRepository).existsById(1L);
-            verify(historyRepository).deleteById(1L);
+            verify(historyRepository).delete(testHistory);
+            verify(rollupRepository).remove(testHistory);
+            verify(bodyStore).release(List.of(11L, 12L));
         }
 
         @Test
         @DisplayName("Should throw ResourceNotFoundException when not found")
         void deleteById_WhenNotExists_ThrowsException() {
             // Arrange
-            when(historyRepository.existsById(999L)).thenReturn(false);
+            when(historyRepository.findById(999L)).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatThrownBy(() -> historyService.deleteById(999L))
@@ -472,7 +653,9 @@ class HistoryServiceImplTest {
                     .hasMessageContaining("History entry")
                     .hasMessageContaining("999");
 
-            verify(historyRepository, never()).deleteById(any());
+            verify(historyRepository, never()).delete(any(RequestHistory.class));
+            verify(rollupRepository, never()).remove(any(RequestHistory.class));
+            verifyNoInteractions(bodyStore);
         }
     }
 
@@ -498,118 +681,211 @@ class HistoryServiceImplTest {
     @DisplayName("getStats() Tests")
     class GetStatsTests {
 
+        // URL search cannot be answered from rollups, so these go to request_history
+        private HistoryFilterDTO rawFilter() {
+            return new HistoryFilterDTO(null, null, "example", null, null);
+        }
+
         @Test
-        @DisplayName("Should return correct statistics")
-        void getStats_ReturnsCorrectStats() {
+        @DisplayName("Should return aggregated statistics")
+        void getStats_ReturnsAggregatedStats() {
             // Arrange
-            List<RequestHistory> histories = Arrays.asList(
-                    createHistory(1L, HttpMethod.GET, 200, 100L),
-                    createHistory(2L, HttpMethod.POST, 201, 150L),
-                    createHistory(3L, HttpMethod.GET, 404, 50L),
-                    createHistory(4L, HttpMethod.DELETE, 500, 200L)
-            );
-
-            when(historyRepository.findAll()).thenReturn(histories);
+            HistoryFilterDTO filter = rawFilter();
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(4L, 2L, 2L, 125.0, 125.0, 192.5, 198.5));
+            when(historyRepository.countByMethod(filter)).thenReturn(
+                    Map.of("GET", 2L, "POST", 1L, "DELETE", 1L));
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            HistoryService.HistoryStats stats = historyService.getStats(filter);
 
             // Assert
             assertThat(stats.totalRequests()).isEqualTo(4L);
-            assertThat(stats.successCount()).isEqualTo(2L); // 200, 201
-            assertThat(stats.errorCount()).isEqualTo(2L); // 404, 500
-            assertThat(stats.avgResponseTime()).isEqualTo(125.0); // (100+150+50+200)/4
+            assertThat(stats.successCount()).isEqualTo(2L);
+            assertThat(stats.errorCount()).isEqualTo(2L);
+            assertThat(stats.avgResponseTime()).isEqualTo(125.0);
+            assertThat(stats.p50ResponseTime()).isEqualTo(125.0);
+            assertThat(stats.p95ResponseTime()).isEqualTo(192.5);
+            assertThat(stats.p99ResponseTime()).isEqualTo(198.5);
             assertThat(stats.methodBreakdown()).containsEntry("GET", 2L);
             assertThat(stats.methodBreakdown()).containsEntry("POST", 1L);
             assertThat(stats.methodBreakdown()).containsEntry("DELETE", 1L);
         }
 
+        @Test
+        @DisplayName("Should never load history rows")
+        void getStats_DoesNotLoadRows() {
+            // Arrange
+            HistoryFilterDTO filter = rawFilter();
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(1L, 1L, 0L, 100.0, 100.0, 100.0, 100.0));
+            when(historyRepository.countByMethod(filter)).thenReturn(Map.of("GET", 1L));
+
+            // Act
+            historyService.getStats(filter);
+
+            // Assert
+            verify(historyRepository, never()).findAll();
+            verify(historyRepository, never()).findSummaries(any(), any());
+        }
+
         @Test
         @DisplayName("Should return empty stats when no history exists")
         void getStats_WhenEmpty_ReturnsEmptyStats() {
             // Arrange
-            when(historyRepository.findAll()).thenReturn(Collections.emptyList());
+            HistoryFilterDTO filter = rawFilter();
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(0L, 0L, 0L, null, null, null, null));
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            HistoryService.HistoryStats stats = historyService.getStats(filter);
 
             // Assert
             assertThat(stats.totalRequests()).isZero();
             assertThat(stats.successCount()).isZero();
             assertThat(stats.errorCount()).isZero();
             assertThat(stats.avgResponseTime()).isZero();
+            assertThat(stats.p99ResponseTime()).isZero();
             assertThat(stats.methodBreakdown()).isEmpty();
+            verify(historyRepository, never()).countByMethod(any());
+        }
+
+        @Test
+        @DisplayName("Should pass filters through to both aggregate queries")
+        void getStats_WithFilter_PassesFilterToQueries() {
+            // Arrange
+            HistoryFilterDTO filter = new HistoryFilterDTO(HttpMethod.GET, 400, "users",
+                    now.minusDays(1), now);
+            // A URL search forces the raw path even with rollup-friendly filters
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(3L, 0L, 3L, 50.0, 40.0, 90.0, 99.0));
+            when(historyRepository.countByMethod(filter)).thenReturn(Map.of("GET", 3L));
+
+            // Act
+            HistoryService.HistoryStats stats = historyService.getStats(filter);
+
+            // Assert
+            assertThat(stats.errorCount()).isEqualTo(3L);
+            assertThat(stats.methodBreakdown()).containsOnlyKeys("GET");
+            verify(historyRepository).aggregateStats(filter);
+            verify(historyRepository).countByMethod(filter);
         }
 
         @Test
-        @DisplayName("Should handle null response time in average calculation")
-        void getStats_WithNullResponseTime_HandlesGracefully() {
+        @DisplayName("Should treat missing averages as zero")
+        void getStats_WithNullAverages_ReturnsZero() {
             // Arrange
-            RequestHistory historyWithNullTime = createHistory(1L, HttpMethod.GET, 200, null);
-            when(historyRepository.findAll()).thenReturn(List.of(historyWithNullTime));
+            HistoryFilterDTO filter = rawFilter();
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(2L, 2L, 0L, null, null, null, null));
+            when(historyRepository.countByMethod(filter)).thenReturn(Map.of("GET", 2L));
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            HistoryService.HistoryStats stats = historyService.getStats(filter);
 
             // Assert
             assertThat(stats.avgResponseTime()).isZero();
+            assertThat(stats.p50ResponseTime()).isZero();
         }
 
         @Test
-        @DisplayName("Should handle null method in breakdown")
-        void getStats_WithNullMethod_HandlesGracefully() {
+        @DisplayName("Should read rollups when the filter allows it")
+        void getStats_WithoutSearch_UsesRollups() {
             // Arrange
-            RequestHistory historyWithNullMethod = RequestHistory.builder()
-                    .id(1L)
-                    .method(null)
-                    .statusCode(200)
-                    .responseTime(100L)
-                    .build();
-            when(historyRepository.findAll()).thenReturn(List.of(historyWithNullMethod));
+            long[] fast = new long[64];
+            fast[20] = 3;  // ~70 ms
+            long[] slow = new long[64];
+            slow[40] = 1;  // ~1.2 s
+            when(rollupRepository.summarize(RollupInterval.HOUR, null, null, null, null, null)).thenReturn(List.of(
+                    new HistoryRollupRepository.RollupGroup("GET", 2, 3L, 210L, 60L, 80L, fast),
+                    new HistoryRollupRepository.RollupGroup("POST", 5, 1L, 1200L, 1200L, 1200L, slow)));
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            HistoryService.HistoryStats stats = historyService.getStats(HistoryFilterDTO.none());
 
             // Assert
-            assertThat(stats.methodBreakdown()).isEmpty();
+            assertThat(stats.totalRequests()).isEqualTo(4L);
+            assertThat(stats.successCount()).isEqualTo(3L);
+            assertThat(stats.errorCount()).isEqualTo(1L);
+            assertThat(stats.avgResponseTime()).isEqualTo(352.5);
+            assertThat(stats.p50ResponseTime()).isBetween(64.0, 80.0);
+            assertThat(stats.p99ResponseTime()).isGreaterThan(1000.0);
+            assertThat(stats.methodBreakdown()).containsEntry("GET", 3L).containsEntry("POST", 1L);
+            verify(historyRepository, never()).aggregateStats(any());
         }
 
         @Test
-        @DisplayName("Should handle null status code")
-        void getStats_WithNullStatusCode_HandlesGracefully() {
+        @DisplayName("Should use minute rollups and status classes for minute-aligned filters")
+        void getStats_WithMinuteAlignedRange_UsesMinuteRollups() {
             // Arrange
-            RequestHistory historyWithNullStatus = RequestHistory.builder()
-                    .id(1L)
-                    .method(HttpMethod.GET)
-                    .statusCode(null)
-                    .responseTime(100L)
-                    .build();
-            when(historyRepository.findAll()).thenReturn(List.of(historyWithNullStatus));
+            LocalDateTime from = LocalDateTime.of(2026, 10, 17, 10, 15);
+            LocalDateTime to = LocalDateTime.of(2026, 10, 17, 11, 0);
+            HistoryFilterDTO filter = new HistoryFilterDTO(HttpMethod.GET, 200, null, from, to);
+            when(rollupRepository.summarize(RollupInterval.MINUTE, from, to, "GET", 2, 3)).thenReturn(List.of());
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            HistoryService.HistoryStats stats = historyService.getStats(filter);
 
             // Assert
-            assertThat(stats.successCount()).isZero();
-            assertThat(stats.errorCount()).isZero();
+            assertThat(stats.totalRequests()).isZero();
+            verify(rollupRepository).summarize(RollupInterval.MINUTE, from, to, "GET", 2, 3);
         }
 
         @Test
-        @DisplayName("Should count 3xx status codes as success")
-        void getStats_With3xxStatus_CountsAsSuccess() {
+        @DisplayName("Should fall back to request_history for exact status codes")
+        void getStats_WithExactStatus_UsesRawHistory() {
             // Arrange
-            List<RequestHistory> histories = List.of(
-                    createHistory(1L, HttpMethod.GET, 301, 100L),
-                    createHistory(2L, HttpMethod.GET, 302, 100L)
-            );
-            when(historyRepository.findAll()).thenReturn(histories);
+            HistoryFilterDTO filter = new HistoryFilterDTO(null, 201, null, null, null);
+            when(historyRepository.aggregateStats(filter)).thenReturn(
+                    new RequestHistoryRepositoryCustom.StatsAggregate(0L, 0L, 0L, null, null, null, null));
 
             // Act
-            HistoryService.HistoryStats stats = historyService.getStats();
+            historyService.getStats(filter);
 
             // Assert
-            assertThat(stats.successCount()).isEqualTo(2L);
-            assertThat(stats.errorCount()).isZero();
+            verifyNoInteractions(rollupRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getTimeSeries() Tests")
+    class GetTimeSeriesTests {
+
+        @Test
+        @DisplayName("Should return one point per bucket including empty ones")
+        void getTimeSeries_FillsEmptyBuckets() {
+            // Arrange
+            LocalDateTime from = LocalDateTime.of(2026, 10, 17, 10, 0);
+            LocalDateTime to = LocalDateTime.of(2026, 10, 17, 10, 3);
+            long[] sketch = new long[64];
+            sketch[22] = 2;
+            when(rollupRepository.timeSeries(RollupInterval.MINUTE, from, to, null, null)).thenReturn(List.of(
+                    new HistoryRollupRepository.RollupBucket(from.plusMinutes(1), 2L, 1L, 200L, 90L, 110L, sketch)));
+
+            // Act
+            List<HistoryTimeSeriesPointDTO> points =
+                    historyService.getTimeSeries(RollupInterval.MINUTE, from, to, null, null);
+
+            // Assert
+            assertThat(points).extracting(HistoryTimeSeriesPointDTO::bucketStart)
+                    .containsExactly(from, from.plusMinutes(1), from.plusMinutes(2));
+            assertThat(points.get(0).requestCount()).isZero();
+            assertThat(points.get(0).avgResponseTime()).isNull();
+            assertThat(points.get(1).requestCount()).isEqualTo(2L);
+            assertThat(points.get(1).errorCount()).isEqualTo(1L);
+            assertThat(points.get(1).avgResponseTime()).isEqualTo(100.0);
+        }
+
+        @Test
+        @DisplayName("Should reject ranges with too many buckets")
+        void getTimeSeries_WithHugeRange_Throws() {
+            // Arrange
+            LocalDateTime to = LocalDateTime.of(2026, 10, 17, 10, 0);
+
+            // Act & Assert
+            assertThatThrownBy(() -> historyService.getTimeSeries(
+                    RollupInterval.MINUTE, to.minusDays(30), to, null, null))
+                    .isInstanceOf(IllegalArgumentException.class);
         }
     }
 
@@ -633,6 +909,20 @@ class HistoryServiceImplTest {
             assertThat(cutoffDate).isAfter(LocalDateTime.now().minusDays(31));
         }
 
+        @Test
+        @DisplayName("Should drop whole partitions before the cutoff day")
+        void deleteOlderThan_DropsPartitionsBeforeCutoffDay() {
+            // Arrange
+            when(historyRepository.dropPartitionsBefore(any(LocalDate.class))).thenReturn(3);
+
+            // Act
+            historyService.deleteOlderThan(30);
+
+            // Assert
+            verify(historyRepository).dropPartitionsBefore(LocalDate.now().minusDays(30));
+            verify(historyRepository).deleteOlderThan(any(LocalDateTime.class));
+        }
+
         @Test
         @DisplayName("Should calculate correct cutoff date for 7 days")
         void deleteOlderThan_CalculatesCorrectDateFor7Days() {
@@ -678,9 +968,10 @@ class HistoryServiceImplTest {
         void mapToSummaryDTO_MapsCorrectly() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            Page<RequestHistory> page = new PageImpl<>(List.of(testHistory), pageable, 1);
+            Page<RequestHistoryRepositoryCustom.HistorySummary> page =
+                    new PageImpl<>(List.of(summaryOf(testHistory)), pageable, 1);
 
-            when(historyRepository.findAll(any(Specification.class), eq(pageable)))
+            when(historyRepository.findSummaries(any(HistoryFilterDTO.class), eq(pageable)))
                     .thenReturn(page);
 
             // Act
@@ -743,16 +1034,4 @@ class HistoryServiceImplTest {
         }
     }
 
-
-    private RequestHistory createHistory(Long id, HttpMethod method, int statusCode, Long responseTime) {
-        return RequestHistory.builder()
-                .id(id)
-                .url("https://api.example.com/test")
-                .method(method)
-                .statusCode(statusCode)
-                .responseTime(responseTime)
-                .executedAt(now)
-                .build();
-    }
 }
-
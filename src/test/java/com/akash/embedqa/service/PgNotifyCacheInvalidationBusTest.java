@@ -0,0 +1,160 @@
+package com.akash.embedqa.service;
+
+import com.akash.embedqa.enums.CacheTopic;
+import com.akash.embedqa.service.impl.PgNotifyCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two bus instances against one PostgreSQL, standing in for two EmbedQA nodes.
+ *
+ * Author: akash
+ * Date: 17/10/26
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("PgNotifyCacheInvalidationBus Integration Tests")
+class PgNotifyCacheInvalidationBusTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DriverManagerDataSource dataSourceA;
+    private PgNotifyCacheInvalidationBus nodeA;
+    private PgNotifyCacheInvalidationBus nodeB;
+
+    private RecordingListener listenerA;
+    private RecordingListener listenerB;
+
+    @BeforeEach
+    void setUp() {
+        dataSourceA = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+        nodeA = newNode(dataSourceA);
+        nodeB = newNode(new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword()));
+
+        listenerA = new RecordingListener();
+        listenerB = new RecordingListener();
+        nodeA.subscribe(CacheTopic.ENVIRONMENT, listenerA);
+        nodeB.subscribe(CacheTopic.ENVIRONMENT, listenerB);
+
+        nodeA.start();
+        nodeB.start();
+        // Each listener clears everything once it is listening
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> listenerA.evictAllCount.get() > 0 && listenerB.evictAllCount.get() > 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    @DisplayName("Should evict on other instances only, for the subscribed topic")
+    void shouldEvictOnOtherInstances() {
+        // Act
+        nodeA.publish(CacheTopic.API_REQUEST, 5L);
+        nodeA.publish(CacheTopic.ENVIRONMENT, 7L);
+        // Delivered after A's own messages, so A has seen (and skipped) those by then
+        nodeB.publish(CacheTopic.ENVIRONMENT, 8L);
+
+        // Assert
+        await().atMost(Duration.ofSeconds(5)).until(() -> listenerA.evicted.contains(8L));
+        await().atMost(Duration.ofSeconds(5)).until(() -> listenerB.evicted.contains(7L));
+        assertThat(listenerA.evicted).containsExactly(8L);
+        assertThat(listenerB.evicted).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Should not deliver messages from a rolled back transaction")
+    void shouldNotDeliverOnRollback() {
+        // Arrange
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSourceA));
+
+        // Act
+        transaction.executeWithoutResult(status -> {
+            nodeA.publish(CacheTopic.ENVIRONMENT, 9L);
+            status.setRollbackOnly();
+        });
+        nodeA.publish(CacheTopic.ENVIRONMENT, 10L);
+
+        // Assert
+        await().atMost(Duration.ofSeconds(5)).until(() -> listenerB.evicted.contains(10L));
+        assertThat(listenerB.evicted).containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("Should keep listening when a subscriber fails to clear its cache")
+    void shouldSurviveFailingEvictAll() {
+        // Arrange
+        PgNotifyCacheInvalidationBus nodeC = newNode(new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword()));
+        RecordingListener listenerC = new RecordingListener();
+        nodeC.subscribe(CacheTopic.ENVIRONMENT, new RecordingListener() {
+            @Override
+            public void evictAll() {
+                throw new IllegalStateException("cache closed");
+            }
+        });
+        nodeC.subscribe(CacheTopic.ENVIRONMENT, listenerC);
+
+        try {
+            // Act
+            nodeC.start();
+            await().atMost(Duration.ofSeconds(10)).until(() -> listenerC.evictAllCount.get() > 0);
+            nodeA.publish(CacheTopic.ENVIRONMENT, 11L);
+
+            // Assert
+            await().atMost(Duration.ofSeconds(5)).until(() -> listenerC.evicted.contains(11L));
+            assertThat(listenerC.evictAllCount.get()).isEqualTo(1);
+        } finally {
+            nodeC.stop();
+        }
+    }
+
+    private static PgNotifyCacheInvalidationBus newNode(DriverManagerDataSource dataSource) {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(POSTGRES.getJdbcUrl());
+        properties.setUsername(POSTGRES.getUsername());
+        properties.setPassword(POSTGRES.getPassword());
+        return new PgNotifyCacheInvalidationBus(new JdbcTemplate(dataSource), properties,
+                new SimpleMeterRegistry(), true, Duration.ofMillis(100));
+    }
+
+    private static class RecordingListener implements CacheInvalidationBus.Listener {
+
+        private final List<Long> evicted = new CopyOnWriteArrayList<>();
+        private final AtomicInteger evictAllCount = new AtomicInteger();
+
+        @Override
+        public void evict(Long id) {
+            evicted.add(id);
+        }
+
+        @Override
+        public void evictAll() {
+            evictAllCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.akash.embedqa.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@DisplayName("BodyFormatter Unit Tests")
+class BodyFormatterTest {
+
+    @Nested
+    @DisplayName("formatJson()")
+    class FormatJsonTests {
+
+        @Test
+        @DisplayName("Should indent like the default pretty printer")
+        void formatJson_Object() {
+            String formatted = BodyFormatter.formatJson("{\"name\":\"a\",\"tags\":[1,2],\"meta\":{}}");
+
+            assertThat(formatted).isEqualTo("""
+                    {
+                      "name" : "a",
+                      "tags" : [ 1, 2 ],
+                      "meta" : { }
+                    }""");
+        }
+
+        @Test
+        @DisplayName("Should keep the text of numbers")
+        void formatJson_NumbersKeepText() {
+            String formatted = BodyFormatter.formatJson("{\"price\":1.10,\"big\":2e10,\"zero\":-0.0,"
+                    + "\"id\":12345678901234567890123}");
+
+            assertThat(formatted)
+                    .contains("\"price\" : 1.10")
+                    .contains("\"big\" : 2e10")
+                    .contains("\"zero\" : -0.0")
+                    .contains("\"id\" : 12345678901234567890123");
+        }
+
+        @Test
+        @DisplayName("Should format a scalar root value")
+        void formatJson_RootScalar() {
+            assertThat(BodyFormatter.formatJson("42")).isEqualTo("42");
+            assertThat(BodyFormatter.formatJson("\"text\"")).isEqualTo("\"text\"");
+            assertThat(BodyFormatter.formatJson("null")).isEqualTo("null");
+        }
+
+        @Test
+        @DisplayName("Should return null when content follows the root value")
+        void formatJson_TrailingContent_ReturnsNull() {
+            assertThat(BodyFormatter.formatJson("{\"a\":1} trailing")).isNull();
+            assertThat(BodyFormatter.formatJson("{\"a\":1}{\"b\":2}")).isNull();
+            assertThat(BodyFormatter.formatJson("1 2")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return null for truncated or empty input")
+        void formatJson_Truncated_ReturnsNull() {
+            assertThat(BodyFormatter.formatJson("{\"items\":[1,")).isNull();
+            assertThat(BodyFormatter.formatJson("{\"a\":\"unterminated")).isNull();
+            assertThat(BodyFormatter.formatJson("")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should format bytes the same as a string")
+        void formatJson_Bytes() {
+            String json = "{\"city\":\"Zürich\",\"n\":1.50}";
+
+            assertThat(BodyFormatter.formatJson(json.getBytes(StandardCharsets.UTF_8)))
+                    .isEqualTo(BodyFormatter.formatJson(json));
+        }
+    }
+
+    @Nested
+    @DisplayName("formatXml()")
+    class FormatXmlTests {
+
+        @Test
+        @DisplayName("Should indent nested elements and keep text elements on one line")
+        void formatXml_Nested() {
+            String formatted = BodyFormatter.formatXml("<a><b>text</b><c><d/></c></a>");
+
+            assertThat(formatted).isEqualTo("""
+                    <a>
+                      <b>text</b>
+                      <c>
+                        <d/>
+                      </c>
+                    </a>""");
+        }
+
+        @Test
+        @DisplayName("Should keep mixed content on one line")
+        void formatXml_MixedContent() {
+            String formatted = BodyFormatter.formatXml("<p>Hello <b>big</b> world</p>");
+
+            assertThat(formatted).isEqualTo("<p>Hello <b>big</b> world</p>");
+        }
+
+        @Test
+        @DisplayName("Should keep namespaces and prefixed attributes")
+        void formatXml_Namespaces() {
+            String formatted = BodyFormatter.formatXml("<?xml version=\"1.0\"?>"
+                    + "<s:Envelope xmlns:s=\"urn:soap\" xmlns=\"urn:default\">"
+                    + "<s:Body s:id=\"1\" plain=\"x\"><item>v</item></s:Body></s:Envelope>");
+
+            assertThat(formatted).isEqualTo("""
+                    <?xml version='1.0'?>
+                    <s:Envelope xmlns:s="urn:soap" xmlns="urn:default">
+                      <s:Body s:id="1" plain="x">
+                        <item>v</item>
+                      </s:Body>
+                    </s:Envelope>""");
+        }
+
+        @Test
+        @DisplayName("Should keep CDATA sections as they are")
+        void formatXml_Cdata() {
+            String formatted = BodyFormatter.formatXml("<a><b><![CDATA[x < y & z]]></b></a>");
+
+            assertThat(formatted).isEqualTo("""
+                    <a>
+                      <b><![CDATA[x < y & z]]></b>
+                    </a>""");
+        }
+
+        @Test
+        @DisplayName("Should not format a document with a DTD")
+        void formatXml_Dtd_ReturnsNull() {
+            assertThat(BodyFormatter.formatXml("<!DOCTYPE a [<!ENTITY e \"x\">]><a>&e;</a>")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return null for a truncated document")
+        void formatXml_Truncated_ReturnsNull() {
+            assertThat(BodyFormatter.formatXml("<a><b>")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("format()")
+    class FormatTests {
+
+        @Test
+        @DisplayName("Should return the body itself when it does not parse or the type is neither")
+        void format_FallsBackToBody() {
+            String broken = "{\"a\":";
+
+            assertThat(BodyFormatter.format(broken, "application/json")).isSameAs(broken);
+            assertThat(BodyFormatter.format("plain", "text/plain")).isEqualTo("plain");
+            assertThat(BodyFormatter.format("<a><b>x</b></a>", "application/soap+xml; charset=utf-8"))
+                    .isEqualTo("<a>\n  <b>x</b>\n</a>");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.akash.embedqa.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@DisplayName("ResponseBodyCapture Unit Tests")
+class ResponseBodyCaptureTest {
+
+    @Test
+    @DisplayName("Should cut a truncated head back to the last whole character")
+    void headText_Truncated_DropsSplitCharacter() throws IOException {
+        // "€" is 3 bytes and "😀" 4; limits that end inside either drop it
+        String body = "ab€cd😀ef";
+
+        assertThat(capture(body, 3).headText()).isEqualTo("ab");
+        assertThat(capture(body, 4).headText()).isEqualTo("ab");
+        assertThat(capture(body, 5).headText()).isEqualTo("ab€");
+        assertThat(capture(body, 8).headText()).isEqualTo("ab€cd");
+        assertThat(capture(body, 10).headText()).isEqualTo("ab€cd");
+        assertThat(capture(body, 11).headText()).isEqualTo("ab€cd😀");
+        assertThat(capture(body, 12).headText()).isEqualTo("ab€cd😀e");
+    }
+
+    @Test
+    @DisplayName("Should decode a body within the limit as it is")
+    void headText_Complete() throws IOException {
+        ResponseBodyCapture.Captured captured = capture("ab€", 64);
+
+        assertThat(captured.truncated()).isFalse();
+        assertThat(captured.headText()).isEqualTo("ab€");
+    }
+
+    private static ResponseBodyCapture.Captured capture(String body, int limit) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ResponseBodyCapture capture = new ResponseBodyCapture(limit, null, captured -> { });
+        capture.write(bytes, 0, bytes.length);
+        return capture.finish();
+    }
+}
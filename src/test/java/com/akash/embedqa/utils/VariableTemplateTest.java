@@ -0,0 +1,162 @@
+package com.akash.embedqa.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Author: akash
+ * Date: 17/10/26
+ */
+@DisplayName("VariableTemplate Unit Tests")
+class VariableTemplateTest {
+
+    // The resolver VariableTemplate replaced; its results are the reference
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)}}");
+
+    private static final Map<String, String> VARIABLES = Map.of(
+            "a", "A",
+            "b", "B",
+            "a}b", "never",
+            "", "EMPTY",
+            "baseUrl", "https://api.example.com");
+
+    @Nested
+    @DisplayName("parity with the regex")
+    class ParityTests {
+
+        @ParameterizedTest(name = "\"{0}\"")
+        @ValueSource(strings = {
+                "{{{a}}",
+                "{{a}b}}",
+                "{{ }}",
+                "{{}}",
+                "{{a}}{{b}}",
+                "{{a}}{{b}}{{a}}",
+                "x{{a}}y{{b}}z",
+                "{{a}",
+                "{{a",
+                "}}{{a}}{{",
+                "{{{{a}}}}",
+                "{{ a }}",
+                "{{unknown}}",
+                "{{baseUrl}}/users/{{ a }}?q={{unknown}}",
+                "plain text",
+                "single { and } braces",
+                ""
+        })
+        @DisplayName("Should resolve like \\{\\{([^}]+)}}")
+        void resolve_MatchesRegex(String input) {
+            assertThat(VariableTemplate.resolve(input, VARIABLES)).isEqualTo(regexResolve(input, VARIABLES));
+        }
+
+        @Test
+        @DisplayName("Should resolve random brace soup like the regex")
+        void resolve_RandomInputs_MatchRegex() {
+            // Arrange
+            Random random = new Random(42);
+            char[] alphabet = {'{', '{', '}', '}', 'a', 'b', ' '};
+
+            for (int i = 0; i < 20_000; i++) {
+                char[] chars = new char[random.nextInt(16)];
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = alphabet[random.nextInt(alphabet.length)];
+                }
+                String input = new String(chars);
+
+                // Act & Assert
+                assertThat(VariableTemplate.compile(input).render(VARIABLES))
+                        .as("input \"%s\"", input)
+                        .isEqualTo(regexResolve(input, VARIABLES));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("resolve()")
+    class ResolveTests {
+
+        @Test
+        @DisplayName("Should trim names and resolve adjacent placeholders")
+        void resolve_AdjacentPlaceholders() {
+            assertThat(VariableTemplate.resolve("{{ a }}{{b}}", VARIABLES)).isEqualTo("AB");
+        }
+
+        @Test
+        @DisplayName("Should end the name at the first closing brace")
+        void resolve_BraceInName_NotAPlaceholder() {
+            // "{{a}" is followed by "b", so nothing here is a placeholder
+            assertThat(VariableTemplate.resolve("{{a}b}}", VARIABLES)).isEqualTo("{{a}b}}");
+        }
+
+        @Test
+        @DisplayName("Should take a third opening brace as part of the name")
+        void resolve_TripleOpeningBrace() {
+            // The name is "{a", which is not a variable
+            assertThat(VariableTemplate.resolve("{{{a}}", VARIABLES)).isEqualTo("{{{a}}");
+        }
+
+        @Test
+        @DisplayName("Should leave an unterminated placeholder as written")
+        void resolve_Unterminated() {
+            assertThat(VariableTemplate.resolve("{{a}", VARIABLES)).isEqualTo("{{a}");
+        }
+
+        @Test
+        @DisplayName("Should leave an unknown variable as written")
+        void resolve_UnknownVariable() {
+            assertThat(VariableTemplate.resolve("id={{ missing }}", VARIABLES)).isEqualTo("id={{ missing }}");
+        }
+
+        @Test
+        @DisplayName("Should leave a placeholder whose variable is null as written")
+        void resolve_NullValue() {
+            // Arrange
+            Map<String, String> variables = new HashMap<>();
+            variables.put("token", null);
+            variables.put("a", "A");
+
+            // Act & Assert
+            assertThat(VariableTemplate.resolve("{{a}}:{{token}}", variables)).isEqualTo("A:{{token}}");
+        }
+
+        @Test
+        @DisplayName("Should return the input itself without \"{{\", variables or input")
+        void resolve_NothingToDo_ReturnsInput() {
+            String input = "https://api.example.com/users?a=}}";
+
+            assertThat(VariableTemplate.resolve(input, VARIABLES)).isSameAs(input);
+            assertThat(VariableTemplate.resolve("{{a}}", Map.of())).isEqualTo("{{a}}");
+            assertThat(VariableTemplate.resolve(null, VARIABLES)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should insert values literally")
+        void resolve_ValueWithSpecialCharacters() {
+            Map<String, String> variables = Map.of("v", "$1\\{{a}}");
+
+            assertThat(VariableTemplate.resolve("{{v}}", variables)).isEqualTo("$1\\{{a}}");
+        }
+    }
+
+    private static String regexResolve(String input, Map<String, String> variables) {
+        Matcher matcher = VARIABLE_PATTERN.matcher(input);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String replacement = variables.getOrDefault(matcher.group(1).trim(), matcher.group(0));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}